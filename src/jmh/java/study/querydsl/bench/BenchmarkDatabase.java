@@ -0,0 +1,74 @@
+package study.querydsl.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.config.SeedProperties;
+import study.querydsl.service.MemberSeedGenerator;
+
+import java.util.function.Supplier;
+
+/*
+벤치마크용 스프링 컨텍스트 + 메모리 H2
+- dataSize 별로 컨텍스트를 새로 띄우고 MemberSeedGenerator 로 데이터를 채움
+- SQL 로그, p6spy, 2차 / 쿼리 캐시를 끄고 실행 -> 캐시가 아니라 쿼리 자체를 측정
+- 각 호출은 읽기 전용 트랜잭션 하나 (영속성 컨텍스트가 호출마다 새로 만들어짐)
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    public static final int TEAMS = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int dataSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = SpringApplication.run(QuerydslApplication.class,
+                "--spring.profiles.active=bench",
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + dataSize + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.study.querydsl=warn",
+                "--querydsl.query-budget.enabled=false",
+                "--decorator.datasource.enabled=false");
+
+        SeedProperties seed = new SeedProperties();
+        seed.setTeams(TEAMS);
+        seed.setMembers(dataSize);
+        seed.setTeamSkew(1.0);
+        seed.setAgeSkew(0.5);
+        context.getBean(MemberSeedGenerator.class).generate(seed);
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T readOnly(Supplier<T> action) {
+        return readOnly.execute(status -> action.get());
+    }
+}
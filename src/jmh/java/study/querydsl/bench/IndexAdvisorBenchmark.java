@@ -0,0 +1,78 @@
+package study.querydsl.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repo.MemberRepository;
+import study.querydsl.repo.support.IndexAdvisor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+IndexAdvisor 가 제안한 인덱스 적용 전 / 후 검색 지연 비교 (indexed=false / true)
+- 설정 단계에서 측정할 검색을 capture 안에서 한 번씩 실행해 조건 모양을 기록
+- indexed=true 면 제안 DDL 을 적용한 뒤 측정 (파라미터 조합마다 새 fork -> 새 메모리 DB)
+./gradlew jmh -PjmhIncludes=IndexAdvisorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexAdvisorBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexAdvisorBenchmark.class);
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition teamAndAge;
+    private String username;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase db) {
+        memberRepository = db.getBean(MemberRepository.class);
+
+        teamAndAge = new MemberSearchCondition();
+        teamAndAge.setTeamName("teamB");
+        teamAndAge.setAgeGoe(20);
+        teamAndAge.setAgeLoe(25);
+        username = "member" + db.dataSize / 2;
+
+        IndexAdvisor indexAdvisor = db.getBean(IndexAdvisor.class);
+        indexAdvisor.capture(() -> {
+            searchByTeamAndAge(db);
+            findByUsername(db);
+            return null;
+        });
+
+        List<IndexAdvisor.Proposal> proposals = indexAdvisor.advise();
+        proposals.forEach(proposal -> log.info("index proposal indexed={} {}", indexed, proposal));
+        if (indexed) {
+            indexAdvisor.apply(proposals);
+        }
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByTeamAndAge(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.search(teamAndAge));
+    }
+
+    @Benchmark
+    public Iterable<Member> findByUsername(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.findAll(member.username.eq(username)));
+    }
+}
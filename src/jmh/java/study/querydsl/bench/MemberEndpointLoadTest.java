@@ -0,0 +1,118 @@
+package study.querydsl.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+회원 검색 API 부하 테스트 (/v1 ~ /v3)
+clients 개의 클라이언트가 duration 동안 쉬지 않고 요청 -> 처리량(req/s), p50 / p99 지연 시간, 실패 수 출력
+
+비교 방법 (같은 데이터, 같은 JDK 21 로 두 번 실행 -> 스레드 모델만 달라지게)
+1. JDK 21 에서 앱 실행 (기본 톰캣 스레드 풀) -> ./gradlew loadTest -PloadTestArgs="http://localhost:8080 1000 30 platform"
+2. JDK 21 에서 --member.virtual-threads.enabled=true 로 앱 실행 -> ./gradlew loadTest -PloadTestArgs="http://localhost:8080 1000 30 virtual"
+가상 스레드는 JDK 21 이상에서만 켤 수 있음 (17 에서는 앱 기동이 실패) -> 17 에서 잰 결과를 virtual 결과와 비교하지 않음
+마지막 인자(mode)는 결과 줄에 그대로 찍는 이름
+ */
+public class MemberEndpointLoadTest {
+
+    private static final String[] PATHS = {
+            "/v1/members?teamName=teamB&ageGoe=20&ageLoe=40",
+            "/v2/members?teamName=teamB&ageGoe=20&ageLoe=40&page=1&size=20",
+            "/v3/members?teamName=teamB&ageGoe=20&ageLoe=40&page=1&size=20"
+    };
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String mode = args.length > 3 ? args[3] : "platform";
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        for (String path : PATHS) {
+            run(httpClient, URI.create(baseUrl + path), mode, clients, Duration.ofSeconds(durationSeconds));
+        }
+    }
+
+    private static void run(HttpClient httpClient, URI uri, String mode, int clients, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        //클라이언트마다 자기 칸에만 기록, done.await() 이후에 읽음
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+
+            executor.execute(() -> {
+                long[] buffer = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+
+                        if (count == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, count * 2);
+                        }
+                        buffer[count++] = System.nanoTime() - start;
+                    }
+                } finally {
+                    latencies[client] = buffer;
+                    counts[client] = count;
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("[%s] %s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.1fms p99=%.1fms%n",
+                mode, uri.getPath(), clients, total, errors.get(), total / (double) duration.toSeconds(),
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
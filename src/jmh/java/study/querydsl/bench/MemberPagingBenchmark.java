@@ -0,0 +1,105 @@
+package study.querydsl.bench;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repo.MemberRepository;
+import study.querydsl.repo.MemberTestRepository;
+import study.querydsl.repo.support.KeysetCursor;
+import study.querydsl.repo.support.TotalCountPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+페이징 방식 비교 -> 조건 없이 전체 회원의 가운데 페이지를 조회
+offset 페이징(count 정책별)과 같은 위치에서 시작하는 keyset 페이징(searchSlice)
+엔티티 페이지 -> offset 으로 회원 + 팀 조회(entityPageOffset) vs id 만 페이징 후 조회(entityPageIdsFirst)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private MemberRepository memberRepository;
+    private MemberTestRepository memberTestRepository;
+    private MemberSearchCondition condition;
+    private Pageable middlePage;
+    private String middleCursor;
+
+    @Setup
+    public void setUp(BenchmarkDatabase db) {
+        memberRepository = db.getBean(MemberRepository.class);
+        memberTestRepository = db.getBean(MemberTestRepository.class);
+        condition = new MemberSearchCondition();
+
+        int offset = db.dataSize / 2 / PAGE_SIZE * PAGE_SIZE;
+        middlePage = PageRequest.of(offset / PAGE_SIZE, PAGE_SIZE);
+
+        //offset 바로 앞 회원의 id -> keyset 페이징이 같은 위치부터 조회하도록
+        JPAQueryFactory queryFactory = db.getBean(JPAQueryFactory.class);
+        Long lastId = db.readOnly(() -> queryFactory
+                .select(member.id)
+                .from(member)
+                .orderBy(member.id.asc())
+                .offset(offset - 1)
+                .fetchFirst());
+        middleCursor = KeysetCursor.encode(lastId);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchPageSimple(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchPageSimple(condition, middlePage));
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchPageComplex(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchPageComplex(condition, middlePage));
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchPageExact(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchPage(condition, middlePage, TotalCountPolicy.EXACT));
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchPageEstimated(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchPage(condition, middlePage, TotalCountPolicy.ESTIMATED));
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchPageNoCount(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchPage(condition, middlePage, TotalCountPolicy.NONE));
+    }
+
+    @Benchmark
+    public CursorSlice<MemberTeamDto> searchSlice(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberRepository.searchSlice(condition, middleCursor, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Member> entityPageOffset(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberTestRepository.applyPagination(condition, middlePage));
+    }
+
+    @Benchmark
+    public Page<Member> entityPageIdsFirst(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberTestRepository.applyPaginationByIds(condition, middlePage));
+    }
+}
@@ -0,0 +1,114 @@
+package study.querydsl.bench;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repo.support.MethodHandleProjection;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+DTO 조회 방식 비교 -> 같은 쿼리로 ROWS 건을 조회하고 MemberDto 로 변환
+- bean : setter, fields : 필드 직접 주입, constructor : 생성자, queryProjection : @QueryProjection (QMemberDto)
+- methodHandle : MethodHandleProjection
+MemberTeamDto 는 @QueryProjection 과 MethodHandleProjection 만 비교 (-prof gc 로 행당 할당량 확인)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberProjectionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final MethodHandleProjection<MemberDto> MEMBER_DTO =
+            MethodHandleProjection.constructor(MemberDto.class, member.username, member.age);
+
+    private static final MethodHandleProjection<MemberTeamDto> MEMBER_TEAM_DTO = MethodHandleProjection.constructor(
+            MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup
+    public void setUp(BenchmarkDatabase db) {
+        queryFactory = db.getBean(JPAQueryFactory.class);
+    }
+
+    @Benchmark
+    public List<MemberDto> bean(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> fields(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> methodHandle(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(MEMBER_DTO)
+                .from(member)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamQueryProjection(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(ROWS)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamMethodHandle(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(ROWS)
+                .fetch());
+    }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.bench;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repo.MemberJpaRepository;
+import study.querydsl.repo.MemberSearchPredicates;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repo.MemberSearchPredicates.MEMBER_TEAM_DTO;
+
+/*
+동적 검색 방식 비교 -> 팀 이름 + 나이 범위 조건
+- jpqlString : 요청마다 JPQL 문자열을 이어 붙임
+- searchByBuilder : BooleanBuilder
+- whereParam : where 절 파라미터 (MemberSearchPredicates)
+- searchByWhere : 조건 모양별로 미리 만들어둔 JPQL (MemberSearchQueryCache)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberSearchBenchmark {
+
+    private EntityManager em;
+    private JPAQueryFactory queryFactory;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp(BenchmarkDatabase db) {
+        em = db.getBean(EntityManager.class);
+        queryFactory = db.getBean(JPAQueryFactory.class);
+        memberJpaRepository = db.getBean(MemberJpaRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpqlString(BenchmarkDatabase db) {
+        return db.readOnly(() -> {
+            StringBuilder jpql = new StringBuilder("select new study.querydsl.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name)" +
+                    " from Member m left join m.team t where 1 = 1");
+            if (condition.getUsername() != null) {
+                jpql.append(" and m.username = :username");
+            }
+            if (condition.getTeamName() != null) {
+                jpql.append(" and t.name = :teamName");
+            }
+            if (condition.getAgeGoe() != null) {
+                jpql.append(" and m.age >= :ageGoe");
+            }
+            if (condition.getAgeLoe() != null) {
+                jpql.append(" and m.age <= :ageLoe");
+            }
+
+            TypedQuery<MemberTeamDto> query = em.createQuery(jpql.toString(), MemberTeamDto.class);
+            if (condition.getUsername() != null) {
+                query.setParameter("username", condition.getUsername());
+            }
+            if (condition.getTeamName() != null) {
+                query.setParameter("teamName", condition.getTeamName());
+            }
+            if (condition.getAgeGoe() != null) {
+                query.setParameter("ageGoe", condition.getAgeGoe());
+            }
+            if (condition.getAgeLoe() != null) {
+                query.setParameter("ageLoe", condition.getAgeLoe());
+            }
+            return query.getResultList();
+        });
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberJpaRepository.searchByBuilder(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> whereParam(BenchmarkDatabase db) {
+        return db.readOnly(() -> queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(MemberSearchPredicates.of(condition).toPredicates())
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByWhere(BenchmarkDatabase db) {
+        return db.readOnly(() -> memberJpaRepository.searchByWhere(condition));
+    }
+}
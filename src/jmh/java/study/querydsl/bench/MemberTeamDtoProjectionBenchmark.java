@@ -0,0 +1,108 @@
+package study.querydsl.bench;
+
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repo.support.MethodHandleProjection;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+DB 없이 결과 행(Object[]) -> MemberTeamDto 변환 비용만 비교 (행당 시간, -prof gc 로 행당 할당량)
+- projectionsConstructor : Projections.constructor (리플렉션)
+- queryProjection : @QueryProjection (QMemberTeamDto)
+- methodHandleField : MethodHandleProjection.constructor(type, args) -> 핸들이 인스턴스 필드
+- methodHandleStatic : static final 핸들을 람다로 호출 -> JIT 가 핸들을 상수로 접어 생성자까지 인라인
+- direct : 생성자 직접 호출 (하한)
+벤치마크 메서드마다 fork 가 따로이므로 newInstance 호출 지점의 프로파일은 섞이지 않음
+./gradlew jmh -PjmhIncludes=MemberTeamDtoProjectionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberTeamDtoProjectionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final ConstructorExpression<MemberTeamDto> PROJECTIONS_CONSTRUCTOR = Projections.constructor(
+            MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+
+    private static final QMemberTeamDto QUERY_PROJECTION = new QMemberTeamDto(
+            member.id, member.username, member.age, team.id, team.name);
+
+    private static final MethodHandleProjection<MemberTeamDto> METHOD_HANDLE_FIELD = MethodHandleProjection.constructor(
+            MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+
+    private static final MethodHandle CONSTRUCTOR = MethodHandleProjection.constructorHandle(
+            MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+
+    private static final MethodHandleProjection<MemberTeamDto> METHOD_HANDLE_STATIC = MethodHandleProjection.constructor(
+            MemberTeamDto.class, values -> CONSTRUCTOR.invokeExact(values),
+            member.id, member.username, member.age, team.id, team.name);
+
+    private Object[][] rows;
+
+    @Setup
+    public void setUp() {
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            //outer join 으로 팀이 없는 행도 섞음
+            rows[i] = i % 10 == 0
+                    ? new Object[]{(long) i, "member" + i, i % 100, null, null}
+                    : new Object[]{(long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)};
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void projectionsConstructor(Blackhole bh) {
+        transform(PROJECTIONS_CONSTRUCTOR, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void queryProjection(Blackhole bh) {
+        transform(QUERY_PROJECTION, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void methodHandleField(Blackhole bh) {
+        transform(METHOD_HANDLE_FIELD, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void methodHandleStatic(Blackhole bh) {
+        transform(METHOD_HANDLE_STATIC, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void direct(Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4]));
+        }
+    }
+
+    private void transform(FactoryExpression<MemberTeamDto> projection, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.bench;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.repo.support.QueryMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+DB 없이 쿼리 한 건당 QueryMetrics 기록 비용만 측정 (-prof gc 로 건당 할당량)
+- timerOnly : Timer 하나만 기록 (하한)
+- record : shape 를 쿼리 객체에 캐시한 경우 (InstrumentedJPAQuery, MemberSearchQueryCache)
+- recordWithShapeOf : 매번 JPQL 해시로 shape 를 구하는 경우
+slow query 로그는 threshold 를 넘지 않으므로 측정에 포함되지 않음
+./gradlew jmh -PjmhIncludes=QueryMetricsBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryMetricsBenchmark {
+
+    private static final String JPQL = "select member1.id, member1.username, member1.age, team.id, team.name\n" +
+            "from Member member1\n" +
+            "  left join member1.team as team\n" +
+            "where member1.username = ?1 and team.name = ?2 and member1.age >= ?3 and member1.age <= ?4";
+    private static final List<Object> PARAMETERS = List.of("member1", "teamA", 10, 40);
+
+    private QueryMetrics queryMetrics;
+    private Timer timer;
+    private String shape;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queryMetrics = new QueryMetrics(registry, Duration.ofSeconds(1), 0.1);
+        timer = Timer.builder("querydsl.baseline").register(registry);
+        shape = queryMetrics.shapeOf(JPQL);
+    }
+
+    @Benchmark
+    public void timerOnly() {
+        timer.record(1_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void record() {
+        queryMetrics.record(shape, JPQL, () -> PARAMETERS, 1_000, 10, 1);
+    }
+
+    @Benchmark
+    public void recordWithShapeOf() {
+        //매번 새 문자열 -> String 해시 캐시를 쓰지 않는 실제 직렬화 결과와 같은 조건
+        String jpql = new String(JPQL);
+        queryMetrics.record(queryMetrics.shapeOf(jpql), jpql, () -> PARAMETERS, 1_000, 10, 1);
+    }
+}
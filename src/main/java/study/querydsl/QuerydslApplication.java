@@ -3,7 +3,10 @@ package study.querydsl;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import study.querydsl.repo.support.InstrumentedJPAQueryFactory;
+import study.querydsl.repo.support.QueryMetrics;
 
 import javax.persistence.EntityManager;
 
@@ -16,9 +19,11 @@ public class QuerydslApplication {
 
 	/*
 	JPAQueryFactory 빈 생성
+	-> 벌크 연산 후 BulkMutationEvent 발행 (캐시 무효화 등에 사용)
+	-> 조회 실행 시간, 행 수, JDBC 왕복 횟수 기록 + 느린 쿼리 로그 (QueryMetrics)
 	 */
 	@Bean
-	JPAQueryFactory jpaQueryFactory(EntityManager em) {
-		return new JPAQueryFactory(em);
+	JPAQueryFactory jpaQueryFactory(EntityManager em, ApplicationEventPublisher eventPublisher, QueryMetrics queryMetrics) {
+		return new InstrumentedJPAQueryFactory(em, eventPublisher, queryMetrics);
 	}
 }
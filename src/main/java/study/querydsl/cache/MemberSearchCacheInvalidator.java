@@ -0,0 +1,115 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.BulkMutationEvent;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/*
+Member / Team 이 변경되면 회원 검색 결과 캐시를 비움
+- 엔티티 변경 -> flush 시점의 하이버네이트 이벤트
+- 벌크 연산 -> 영속성 컨텍스트를 거치지 않으므로 BulkMutationEvent
+트랜잭션마다 변경 여부만 기록해두고 커밋 후 한 번만 비움 (롤백되면 비우지 않음, 트랜잭션 밖의 변경은 바로 비움)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchCacheInvalidator implements PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MemberSearchResultCache memberSearchResultCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @EventListener
+    public void onBulkMutation(BulkMutationEvent event) {
+        if (isSearchEntity(event.getEntityType())) {
+            invalidateAfterCommit();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidateIfSearchEntity(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidateIfSearchEntity(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidateIfSearchEntity(event.getPersister());
+    }
+
+    /*
+    커밋 후 이벤트는 필요 없음 (커밋 여부는 TransactionSynchronization 으로 확인)
+     */
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidateIfSearchEntity(EntityPersister persister) {
+        if (isSearchEntity(persister.getMappedClass())) {
+            invalidateAfterCommit();
+        }
+    }
+
+    /*
+    현재 트랜잭션에 이미 등록했으면 무시 -> 변경 건수와 관계없이 커밋당 한 번
+    REQUIRES_NEW 로 보류된 바깥 트랜잭션의 synchronization 은 목록에 없으므로 안쪽 트랜잭션은 따로 등록됨
+     */
+    private void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            memberSearchResultCache.invalidateAll();
+            return;
+        }
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof InvalidateAfterCommit) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new InvalidateAfterCommit());
+    }
+
+    private boolean isSearchEntity(Class<?> entityType) {
+        return Member.class.isAssignableFrom(entityType) || Team.class.isAssignableFrom(entityType);
+    }
+
+    private class InvalidateAfterCommit implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            memberSearchResultCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repo.MemberSearchPredicates;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*
+회원 검색 결과 캐시 -> 정규화한 검색 조건을 키로 사용
+크기, ttl 로 만료되고 Member / Team 이 변경되면 MemberSearchCacheInvalidator 가 전체를 비움
+적중률, 제거 건수는 cache.gets, cache.evictions 등의 메트릭(cache=memberSearch)으로 노출
+커밋 전에 시작한 조회가 무효화 뒤에 끝나면 변경 전 결과가 ttl 까지 남으므로 세대 번호로 막음
+-> 조회 전 세대를 읽어두고 그 사이 invalidateAll() 이 있었으면 넣지 않음 (같은 조건의 동시 조회는 합치지 않음)
+ */
+@Component
+public class MemberSearchResultCache {
+
+    private final Cache<MemberSearchPredicates, List<MemberTeamDto>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberSearchResultCache(@Value("${member.search-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${member.search-cache.ttl:60s}") Duration ttl,
+                                   MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberSearch");
+    }
+
+    public List<MemberTeamDto> get(MemberSearchCondition condition,
+                                   Function<MemberSearchCondition, List<MemberTeamDto>> loader) {
+        MemberSearchPredicates key = MemberSearchPredicates.of(condition);
+        List<MemberTeamDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        List<MemberTeamDto> loaded = List.copyOf(loader.apply(condition));
+        if (generation.get() == loadedAt) {
+            cache.put(key, loaded);
+            //확인과 put 사이에 무효화됐으면 방금 넣은 값 제거
+            if (generation.get() != loadedAt) {
+                cache.asMap().remove(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    long generation() {
+        return generation.get();
+    }
+}
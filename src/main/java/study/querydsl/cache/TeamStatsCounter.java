@@ -0,0 +1,276 @@
+package study.querydsl.cache;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.BulkMutationEvent;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+팀별 회원 수, 나이 합계 / 최소 / 최대를 메모리에 유지 -> 조회는 O(팀 수)
+- 회원 저장 / 변경 / 삭제 -> 하이버네이트 커밋 후 이벤트로 해당 팀의 값만 갱신
+- 최소 / 최대는 삭제되면 다시 구해야 하므로 팀마다 나이별 회원 수(히스토그램)를 유지
+- 벌크 연산(BulkMutationEvent)이나 변경 전 상태를 알 수 없는 변경 -> stale 로 표시하고 다음 조회 때 전체 재계산
+ */
+@Slf4j
+@Component
+public class TeamStatsCounter implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnly;
+
+    private volatile Map<Long, TeamStats> stats = new HashMap<>();
+    private volatile boolean stale = true;
+    private long version;
+
+    public TeamStatsCounter(EntityManagerFactory entityManagerFactory,
+                            JPAQueryFactory queryFactory,
+                            PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryFactory = queryFactory;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public List<TeamStatsDto> getStats() {
+        if (stale) {
+            rebuild();
+        }
+
+        List<TeamStatsDto> result = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<Long, TeamStats> entry : stats.entrySet()) {
+                TeamStatsDto dto = entry.getValue().toDto(entry.getKey());
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(TeamStatsDto::getTeamId));
+        return result;
+    }
+
+    /*
+    전체 재계산 -> (팀, 나이)별 회원 수로 히스토그램을 만듦
+    계산하는 동안 변경 이벤트가 들어오면 결과에 반영됐는지 알 수 없으므로 다시 계산
+     */
+    public void rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            long startVersion;
+            synchronized (this) {
+                startVersion = version;
+            }
+
+            Map<Long, TeamStats> rebuilt = readOnly.execute(status -> load());
+
+            synchronized (this) {
+                if (version == startVersion || attempt == MAX_REBUILD_ATTEMPTS) {
+                    stats = rebuilt;
+                    stale = version != startVersion;
+                    return;
+                }
+            }
+            log.debug("team stats changed while rebuilding, retry {}", attempt);
+        }
+    }
+
+    private Map<Long, TeamStats> load() {
+        Map<Long, TeamStats> loaded = new HashMap<>();
+
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            loaded.put(row.get(team.id), new TeamStats(row.get(team.name)));
+        }
+
+        List<Tuple> histogram = queryFactory
+                .select(member.team.id, member.age, member.count())
+                .from(member)
+                .where(member.team.isNotNull())
+                .groupBy(member.team.id, member.age)
+                .fetch();
+        for (Tuple row : histogram) {
+            TeamStats teamStats = loaded.computeIfAbsent(row.get(member.team.id), id -> new TeamStats(null));
+            teamStats.add(row.get(member.age), row.get(member.count()));
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkMutation(BulkMutationEvent event) {
+        if (isStatsEntity(event.getEntityType())) {
+            markStale();
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            Integer teamIndex = propertyIndex(event.getPersister(), "team");
+            Integer ageIndex = propertyIndex(event.getPersister(), "age");
+            apply(teamId(event.getState()[teamIndex]), (Integer) event.getState()[ageIndex], 1);
+        } else if (entity instanceof Team) {
+            Team inserted = (Team) entity;
+            synchronized (this) {
+                version++;
+                stats.computeIfAbsent(inserted.getId(), id -> new TeamStats(null)).name = inserted.getName();
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            if (event.getOldState() == null) {
+                markStale();
+                return;
+            }
+
+            Integer teamIndex = propertyIndex(event.getPersister(), "team");
+            Integer ageIndex = propertyIndex(event.getPersister(), "age");
+            synchronized (this) {
+                apply(teamId(event.getOldState()[teamIndex]), (Integer) event.getOldState()[ageIndex], -1);
+                apply(teamId(event.getState()[teamIndex]), (Integer) event.getState()[ageIndex], 1);
+            }
+        } else if (entity instanceof Team) {
+            Team updated = (Team) entity;
+            synchronized (this) {
+                version++;
+                stats.computeIfAbsent(updated.getId(), id -> new TeamStats(null)).name = updated.getName();
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            if (event.getDeletedState() == null) {
+                markStale();
+                return;
+            }
+
+            Integer teamIndex = propertyIndex(event.getPersister(), "team");
+            Integer ageIndex = propertyIndex(event.getPersister(), "age");
+            apply(teamId(event.getDeletedState()[teamIndex]), (Integer) event.getDeletedState()[ageIndex], -1);
+        } else if (entity instanceof Team) {
+            synchronized (this) {
+                version++;
+                stats.remove(event.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return isStatsEntity(persister.getMappedClass());
+    }
+
+    private synchronized void apply(Long teamId, int age, long delta) {
+        version++;
+        if (teamId == null) {
+            return;
+        }
+        stats.computeIfAbsent(teamId, id -> new TeamStats(null)).add(age, delta);
+    }
+
+    private synchronized void markStale() {
+        version++;
+        stale = true;
+    }
+
+    private static Integer propertyIndex(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+
+    private static Long teamId(Object team) {
+        return team != null ? ((Team) team).getId() : null;
+    }
+
+    private boolean isStatsEntity(Class<?> entityType) {
+        return Member.class.isAssignableFrom(entityType) || Team.class.isAssignableFrom(entityType);
+    }
+
+    /*
+    한 팀의 집계 (TeamStatsCounter 의 lock 안에서만 변경)
+     */
+    private static class TeamStats {
+
+        private String name;
+        private long count;
+        private long ageSum;
+        private final TreeMap<Integer, Long> ageHistogram = new TreeMap<>();
+
+        TeamStats(String name) {
+            this.name = name;
+        }
+
+        void add(int age, long delta) {
+            count += delta;
+            ageSum += age * delta;
+            ageHistogram.merge(age, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+
+        TeamStatsDto toDto(Long teamId) {
+            if (count <= 0 || ageHistogram.isEmpty()) {
+                return null;
+            }
+            return new TeamStatsDto(teamId, name, count, ageSum, ageHistogram.firstKey(), ageHistogram.lastKey());
+        }
+    }
+}
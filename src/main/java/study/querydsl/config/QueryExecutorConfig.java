@@ -0,0 +1,47 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/*
+조회 쿼리를 병렬로 실행할 때 사용하는 스레드 풀
+각 작업은 커넥션을 하나씩 점유하므로 커넥션 풀 크기보다 작게 유지
+ */
+@Configuration
+public class QueryExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor countQueryExecutor(@Value("${querydsl.parallel-count.pool-size:4}") int poolSize,
+                                                     @Value("${querydsl.parallel-count.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("count-query-");
+        //큐가 가득 차면 호출한 스레드에서 실행 -> 순차 실행과 같아짐
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /*
+    비동기 검색(searchAsync 등) 전용 스레드 풀
+    큐가 가득 차면 거절 -> 호출한 쪽의 CompletableFuture 가 예외로 완료됨 (요청 스레드에서 대신 실행하지 않음)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor searchQueryExecutor(@Value("${querydsl.async-search.pool-size:8}") int poolSize,
+                                                      @Value("${querydsl.async-search.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션은 복제본으로, 나머지(쓰기 트랜잭션, 트랜잭션 없는 호출, 벌크 연산)는 primary 로 보내는 DataSource.
+ * <p>
+ * 트랜잭션이 시작할 때가 아니라 처음 커넥션을 쓸 때 라우팅해야 readOnly 여부를 알 수 있으므로
+ * 반드시 {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} 로 감싸서 사용한다.
+ * <p>
+ * 방금 쓴 데이터를 바로 읽어야 하는 경우(복제 지연) {@link #primary(Supplier)} 안에서 조회하면 primary 에서 읽는다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Integer> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Strategy strategy;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<DataSource> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Strategy strategy) {
+        Assert.notNull(primary, "Primary must not be null!");
+        Assert.notNull(strategy, "Strategy must not be null!");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            this.replicaKeys.add(key);
+            this.replicas.add(replicas.get(i));
+        }
+
+        this.strategy = strategy;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public List<DataSource> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /*
+    action 안의 조회는 읽기 전용 트랜잭션이라도 primary 로 보냄 (중첩 가능)
+    이미 커넥션을 얻은 트랜잭션 안에서는 효과가 없으므로 트랜잭션 바깥에서 감싸야 함
+     */
+    public static <T> T primary(Supplier<T> action) {
+        Integer depth = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(depth == null ? 1 : depth + 1);
+        try {
+            return action.get();
+        } finally {
+            if (depth == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(depth);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty()
+                || FORCE_PRIMARY.get() != null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(strategy == Strategy.LEAST_ACTIVE ? leastActive() : roundRobin());
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+    }
+
+    /*
+    사용 중인 커넥션이 가장 적은 복제본 (Hikari 풀이 아니거나 아직 풀이 없으면 round-robin)
+     */
+    private int leastActive() {
+        int selected = -1;
+        int minActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!(replicas.get(i) instanceof HikariDataSource)) {
+                return roundRobin();
+            }
+
+            HikariPoolMXBean pool = ((HikariDataSource) replicas.get(i)).getHikariPoolMXBean();
+            if (pool == null) {
+                return roundRobin();
+            }
+            if (pool.getActiveConnections() < minActive) {
+                minActive = pool.getActiveConnections();
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+    /*
+    복제본 풀은 빈이 아니므로 여기서 닫음 (primary 는 빈으로 등록되어 따로 닫힘)
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_ACTIVE
+    }
+}
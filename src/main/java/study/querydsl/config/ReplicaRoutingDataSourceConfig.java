@@ -0,0 +1,60 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+member.datasource.routing.enabled=true 이면 primary(spring.datasource) + 복제본으로 라우팅
+- @Transactional(readOnly = true) -> 복제본, 그 외 -> primary
+- 커넥션 풀 설정(spring.datasource.hikari.*)은 primary, 복제본 모두에 적용
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaRoutingProperties.class})
+@ConditionalOnProperty(name = "member.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReplicaRoutingProperties routingProperties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            HikariDataSource replicaDataSource = new HikariDataSource();
+            primaryDataSource.copyStateTo(replicaDataSource);
+            replicaDataSource.setPoolName(null);
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername());
+            replicaDataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword());
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, routingProperties.getStrategy());
+    }
+
+    /*
+    트랜잭션이 readOnly 로 표시된 뒤 첫 쿼리에서 라우팅하도록 지연 커넥션으로 감쌈
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
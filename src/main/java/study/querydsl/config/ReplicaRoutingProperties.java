@@ -0,0 +1,28 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+읽기 복제본 라우팅 설정 (member.datasource.routing.*)
+복제본의 username / password 를 생략하면 spring.datasource 의 값을 사용
+ */
+@Getter @Setter
+@ConfigurationProperties("member.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+    private ReplicaRoutingDataSource.Strategy strategy = ReplicaRoutingDataSource.Strategy.ROUND_ROBIN;
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,30 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+샘플 데이터 생성 설정 (seed.*)
+skew 는 Zipf 분포의 지수 -> 0 이면 균등 분포, 클수록 앞쪽 팀 / 나이(minAge 쪽)에 몰림
+나이는 minAge ~ maxAge 범위 (순위 0 이 minAge)
+multiRowInsert 는 기본 JPA 배치 insert, true 면 여러 행을 한 insert 문으로 적재
+seed 가 같으면 같은 데이터가 만들어짐 (worker 수와 무관)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties("seed")
+public class SeedProperties {
+
+    private int teams = 2;
+    private int members = 100;
+    private double teamSkew = 0.0;
+    private int minAge = 1;
+    private int maxAge = 100;
+    private double ageSkew = 0.0;
+    private long seed = 42L;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 10_000;
+    private boolean multiRowInsert = false;
+}
@@ -0,0 +1,104 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+member.virtual-threads.enabled=true 이면 톰캣 요청을 가상 스레드에서 실행 (기본 false)
+- 검색 API 만이 아니라 톰캣이 받는 모든 요청(export, actuator 포함)이 가상 스레드에서 실행됨
+- JDK 21 이상에서 실행할 때만 켤 수 있음 -> 빌드는 17 로 유지하므로 가상 스레드 executor 는 리플렉션으로 생성, 21 미만이면 기동 시점에 실패
+- 요청 스레드 수 제한이 없어지므로 동시에 JDBC 를 쓰는 요청 수는 커넥션 풀 크기가 결정 -> HikariPoolSizingPolicy (복제본 풀 포함)
+- H2 / 하이버네이트의 synchronized 구간에서는 가상 스레드가 캐리어 스레드를 점유(pinning)하므로 부하 테스트(MemberEndpointLoadTest)로 확인 후 사용
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "member.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService virtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("member.virtual-threads.enabled requires JDK 21 or later, but running on "
+                    + Runtime.version());
+        }
+
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        log.info("tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizingPolicy(Environment environment) {
+        return new HikariPoolSizingPolicy(environment);
+    }
+
+    /*
+    커넥션 풀 크기 = CPU 코어 수 * 2 + spindles (spring.datasource.hikari.maximum-pool-size 를 설정하면 그 값을 사용)
+    요청 수가 풀보다 훨씬 많아지므로 커넥션 대기 시간을 짧게 -> 과부하 시 30초씩 쌓이지 않고 빨리 실패
+    복제본 라우팅(ReplicaRoutingDataSource)을 쓰면 빈이 아닌 복제본 풀에도 같은 정책 적용 (복제본마다 풀 하나)
+     */
+    static class HikariPoolSizingPolicy implements BeanPostProcessor {
+
+        private final Environment environment;
+
+        HikariPoolSizingPolicy(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource) {
+                apply((HikariDataSource) bean, beanName);
+            } else if (bean instanceof ReplicaRoutingDataSource) {
+                List<DataSource> replicas = ((ReplicaRoutingDataSource) bean).getReplicas();
+                for (int i = 0; i < replicas.size(); i++) {
+                    if (replicas.get(i) instanceof HikariDataSource) {
+                        apply((HikariDataSource) replicas.get(i), beanName + ".replica-" + i);
+                    }
+                }
+            }
+            return bean;
+        }
+
+        private void apply(HikariDataSource dataSource, String name) {
+            if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                int spindles = environment.getProperty("member.virtual-threads.pool.spindles", Integer.class, 1);
+                dataSource.setMaximumPoolSize(poolSize(Runtime.getRuntime().availableProcessors(), spindles));
+            }
+            if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                Duration timeout = environment.getProperty("member.virtual-threads.pool.connection-timeout",
+                        Duration.class, Duration.ofSeconds(2));
+                dataSource.setConnectionTimeout(timeout.toMillis());
+            }
+
+            log.info("{} hikari pool size {}, connection timeout {}ms",
+                    name, dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+        }
+
+        static int poolSize(int cores, int spindles) {
+            return cores * 2 + spindles;
+        }
+    }
+}
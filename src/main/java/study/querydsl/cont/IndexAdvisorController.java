@@ -0,0 +1,23 @@
+package study.querydsl.cont;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repo.support.IndexAdvisor;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class IndexAdvisorController {
+
+    private final IndexAdvisor indexAdvisor;
+
+    /*
+    지금까지 기록한 검색 조건 모양으로 만든 인덱스 제안 (DDL 은 실행하지 않음)
+     */
+    @GetMapping("/v1/index-advice")
+    public List<IndexAdvisor.Proposal> indexAdvice() {
+        return indexAdvisor.advise();
+    }
+}
@@ -3,42 +3,24 @@ package study.querydsl.cont;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.config.SeedProperties;
+import study.querydsl.service.MemberSeedGenerator;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+/*
+local 프로필 샘플 데이터 -> 크기와 분포는 seed.* 설정으로 조절 (SeedProperties)
+ */
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
-    private final InitMemberService initMemberService;
+    private final MemberSeedGenerator memberSeedGenerator;
+    private final SeedProperties seedProperties;
 
     @PostConstruct
     public void init() {
-        initMemberService.init();
-    }
-
-    @Component
-    @Transactional
-    static class InitMemberService {
-
-        @PersistenceContext private EntityManager em;
-
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member(selectedTeam, "member" + i, i));
-            }
-        }
+        memberSeedGenerator.generate(seedProperties);
     }
 }
@@ -3,13 +3,26 @@ package study.querydsl.cont;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.cache.MemberSearchResultCache;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repo.MemberJpaRepository;
 import study.querydsl.repo.MemberRepository;
+import study.querydsl.repo.MemberSliceSort;
+import study.querydsl.repo.support.InvalidCursorException;
+import study.querydsl.service.MemberExportService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -18,10 +31,15 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchResultCache memberSearchResultCache;
+    private final MemberExportService memberExportService;
 
+    /*
+    같은 조건의 반복 요청이 많음 -> 검색 결과 캐시 사용
+     */
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.searchByWhere(condition);
+        return memberSearchResultCache.get(condition, memberJpaRepository::searchByWhere);
     }
 
     /*
@@ -36,4 +54,39 @@ public class MemberController {
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageComplex(condition, pageable);
     }
+
+    /*
+    cursor 기반 페이징 -> 응답의 nextCursor 를 다음 요청의 cursor 로 넘김 (sort 는 같은 값으로 유지)
+    size 가 0 이하이거나 잘못된 / 다른 sort 의 cursor 는 400
+     */
+    @GetMapping("/v4/members")
+    public CursorSlice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(defaultValue = "ID") MemberSliceSort sort,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be greater than zero");
+        }
+        return memberRepository.searchSlice(condition, sort, cursor, size);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidCursor(InvalidCursorException e) {
+        return e.getMessage();
+    }
+
+    /*
+    회원 내보내기 (format = ndjson / csv) -> 응답 스트림에 바로 출력
+     */
+    @GetMapping("/v1/members/export")
+    public void exportMembers(MemberSearchCondition condition,
+                              @RequestParam(defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        MemberExportService.Format exportFormat = MemberExportService.Format.from(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        memberExportService.export(condition, exportFormat, response.getWriter());
+    }
 }
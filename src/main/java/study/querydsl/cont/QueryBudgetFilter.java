@@ -0,0 +1,42 @@
+package study.querydsl.cont;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.repo.support.QueryBudget;
+import study.querydsl.repo.support.QueryBudgetPolicy;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+HTTP 요청마다 실행한 SQL 수 확인 (QueryBudgetPolicy)
+fail 모드는 요청 처리 중 한도를 넘는 SQL 을 실행하기 전에 예외, 요청이 끝난 뒤에는 (응답이 이미 커밋됐을 수 있으므로) 로그만
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudgetPolicy queryBudgetPolicy;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!queryBudgetPolicy.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QueryBudget.Scope scope = queryBudgetPolicy.openRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+
+        queryBudgetPolicy.checkRequest(scope);
+    }
+}
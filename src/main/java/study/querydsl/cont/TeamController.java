@@ -0,0 +1,34 @@
+package study.querydsl.cont;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.TeamStatsCounter;
+import study.querydsl.dto.TeamStatsDto;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsCounter teamStatsCounter;
+
+    /*
+    팀별 회원 수, 나이 합계 / 평균 / 최소 / 최대 -> 메모리에 유지하는 집계 (group by 없음)
+     */
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsCounter.getStats();
+    }
+
+    /*
+    전체 재계산
+     */
+    @PostMapping("/v1/teams/stats/rebuild")
+    public List<TeamStatsDto> rebuildTeamStats() {
+        teamStatsCounter.rebuild();
+        return teamStatsCounter.getStats();
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/*
+대량 적재할 회원 한 건 -> 엔티티 대신 값만 넘겨서 팀 엔티티 로딩 없이 적재
+ */
+@Getter
+public class MemberLoadRow {
+
+    private final Long teamId;
+    private final String username;
+    private final int age;
+
+    public MemberLoadRow(Long teamId, String username, int age) {
+        this.teamId = teamId;
+        this.username = username;
+        this.age = age;
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+배치 작업 진행 위치 -> chunk 를 커밋할 때 같은 트랜잭션에서 갱신
+실패한 작업을 같은 이름으로 다시 실행하면 lastId 다음부터 이어서 실행
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"jobName", "lastId", "processedRows", "status"})
+public class BatchCheckpoint {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    private Long lastId;
+    private long processedRows;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private LocalDateTime updatedAt;
+
+    public BatchCheckpoint(String jobName) {
+        this.jobName = jobName;
+        this.status = Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(Long lastId, long affectedRows) {
+        this.lastId = lastId;
+        this.processedRows += affectedRows;
+        this.status = Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void complete() {
+        this.status = Status.COMPLETED;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void fail() {
+        this.status = Status.FAILED;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
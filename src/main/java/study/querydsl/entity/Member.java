@@ -1,17 +1,22 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
 
@@ -39,6 +44,15 @@ public class Member {
         this.age = age;
     }
 
+    /*
+    대량 적재용 -> 팀의 members 컬렉션을 초기화하지 않도록 양방향 연관관계를 맞추지 않음
+     */
+    public static Member forBulkLoad(Team team, String username, int age) {
+        Member member = new Member(username, age);
+        member.team = team;
+        return member;
+    }
+
     //양방향 연관관계 생성
     private void setTeam(Team team) {
         this.team = team;
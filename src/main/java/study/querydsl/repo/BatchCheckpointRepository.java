@@ -0,0 +1,7 @@
+package study.querydsl.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.querydsl.entity.BatchCheckpoint;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+}
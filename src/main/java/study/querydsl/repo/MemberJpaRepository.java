@@ -1,30 +1,34 @@
 package study.querydsl.repo;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repo.MemberSearchPredicates.MEMBER_TEAM_DTO;
 
 @Repository
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCache memberSearchQueryCache;
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
@@ -62,6 +66,10 @@ public class MemberJpaRepository {
     동적 쿼리 생성 (BooleanBuilder) -> 회원 이름, 팀 이름, 나이 범위
      */
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        if (MemberSearchPredicates.of(condition).isEmpty()) {
+            return Collections.emptyList();
+        }
+
         BooleanBuilder builder = new BooleanBuilder();
 
         if (hasText(condition.getUsername())) {
@@ -81,13 +89,7 @@ public class MemberJpaRepository {
         }
 
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(builder)
@@ -96,44 +98,9 @@ public class MemberJpaRepository {
 
     /*
     동적 쿼리 생성 (Where 절)
+    -> 조건 모양별로 미리 만들어둔 JPQL 에 파라미터만 바인딩 (MemberSearchQueryCache)
      */
     public List<MemberTeamDto> searchByWhere(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
-    }
-
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageLoe(ageLoe).and(ageGoe(ageGoe));
+        return memberSearchQueryCache.search(condition);
     }
 }
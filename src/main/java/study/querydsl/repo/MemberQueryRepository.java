@@ -1,65 +1,40 @@
 package study.querydsl.repo;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
 
+import java.util.Collections;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repo.MemberSearchPredicates.MEMBER_TEAM_DTO;
 
 /*
-범용성이 없고 특정 api 에만 종속되어있는 경우 -> 조회용
+범용성이 없고 특정 api 에만 종속되어있는 경우 -> 조회용 (읽기 전용 트랜잭션 -> 복제본 라우팅 대상)
  */
 @Repository
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberQueryRepository {
 
     private final JPAQueryFactory queryFactory;
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
         return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+                .select(MEMBER_TEAM_DTO)
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(predicates.toPredicates())
                 .fetch();
     }
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
-    }
-
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageLoe(ageLoe).and(ageGoe(ageGoe));
-    }
 }
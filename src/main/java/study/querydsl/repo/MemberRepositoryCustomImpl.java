@@ -1,145 +1,214 @@
 package study.querydsl.repo;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repo.support.AsyncQueryExecutor;
+import study.querydsl.repo.support.EstimatedCountCache;
+import study.querydsl.repo.support.TotalCountPolicy;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repo.MemberSearchPredicates.MEMBER_TEAM_DTO;
 
 @Repository
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
+    static final int MAX_SLICE_SIZE = 2000;
+
     private final JPAQueryFactory queryFactory;
+    private final EstimatedCountCache estimatedCountCache;
+    private final MemberSearchQueryCache memberSearchQueryCache;
+    private final AsyncQueryExecutor asyncQueryExecutor;
 
+    /*
+    조건 모양별로 캐시된 JPQL 사용 (MemberSearchQueryCache)
+     */
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return memberSearchQueryCache.search(condition);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<MemberTeamDto> content = contentQuery(predicates)
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        return new PageImpl<>(content, pageable, content.size());
+        Long total = countQuery(predicates).fetchOne();
+
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
         //조회 query
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        List<MemberTeamDto> content = contentQuery(predicates)
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        //count query -> Long
-        Long count = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetchOne();
-
-        //count query -> JPAQuery
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
-
-        return new PageImpl<>(content, pageable, count);
-//        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+        //count query -> 필요할 때만 실행 (첫 페이지가 size 보다 작거나 마지막 페이지면 생략)
+        JPAQuery<Long> countQuery = countQuery(predicates);
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    /*
+    전체 건수 정책에 따라 필요한 만큼만 비용을 지불
+    EXACT -> count 쿼리, ESTIMATED -> 캐시된 count, NONE -> size + 1 건 조회로 다음 페이지 여부만 판단
+    Pageable.unpaged() 면 offset / limit 없이 전체 조회
+     */
+    @Override
+    public Slice<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, TotalCountPolicy policy) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+
+        if (policy == TotalCountPolicy.NONE) {
+            if (predicates.isEmpty()) {
+                return new SliceImpl<>(Collections.emptyList(), pageable, false);
+            }
+
+            if (pageable.isUnpaged()) {
+                return new SliceImpl<>(contentQuery(predicates).fetch(), pageable, false);
+            }
+
+            List<MemberTeamDto> result = contentQuery(predicates)
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize() + 1L)
+                    .fetch();
+
+            boolean hasNext = result.size() > pageable.getPageSize();
+            List<MemberTeamDto> content = hasNext ? new ArrayList<>(result.subList(0, pageable.getPageSize())) : result;
+
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        JPAQuery<MemberTeamDto> contentQuery = contentQuery(predicates);
+        if (pageable.isPaged()) {
+            contentQuery.offset(pageable.getOffset())
+                    .limit(pageable.getPageSize());
+        }
+        List<MemberTeamDto> content = contentQuery.fetch();
+
+        JPAQuery<Long> countQuery = countQuery(predicates);
+
+        if (policy == TotalCountPolicy.ESTIMATED) {
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> estimatedCountCache.get(predicates, countQuery::fetchOne));
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    @Override
+    public CursorSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, String cursor, int size) {
+        return searchSlice(condition, MemberSliceSort.ID, cursor, size);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    /*
+    keyset(seek) 페이징 -> offset 없이 커서의 (정렬 키, id) 다음 행만 조회하므로 페이지가 깊어져도 비용이 같음
+    size + 1 건을 조회해서 다음 페이지 존재 여부를 판단, size 는 MAX_SLICE_SIZE 까지 (pageable 의 max-page-size 와 같은 방식)
+     */
+    @Override
+    public CursorSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, MemberSliceSort sort,
+                                                  String cursor, int size) {
+        Assert.isTrue(size > 0, "Size must be greater than zero!");
+        Assert.notNull(sort, "Sort must not be null!");
+        int limit = Math.min(size, MAX_SLICE_SIZE);
+
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return new CursorSlice<>(Collections.emptyList(), null, false);
+        }
+
+        List<MemberTeamDto> result = contentQuery(predicates)
+                .where(sort.afterCursor(cursor))
+                .orderBy(sort.orderBy())
+                .limit(limit + 1L)
+                .fetch();
+
+        boolean hasNext = result.size() > limit;
+        List<MemberTeamDto> content = hasNext ? new ArrayList<>(result.subList(0, limit)) : result;
+        String nextCursor = hasNext ? sort.cursorOf(content.get(limit - 1)) : null;
+
+        return new CursorSlice<>(content, nextCursor, hasNext);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    /*
+    서로 독립적인 조회를 병렬로 실행할 때 사용 -> 각각 별도 스레드, 별도 트랜잭션 / EntityManager
+    future 를 취소하거나 timeout 되면 실행 중인 쿼리 스레드를 interrupt
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition) {
+        return asyncQueryExecutor.submit(() -> search(condition));
     }
 
-    private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
-        return ageLoe(ageLoe).and(ageGoe(ageGoe));
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable) {
+        return asyncQueryExecutor.submit(() -> searchPageComplex(condition, pageable));
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(MemberSearchPredicates predicates) {
+        return queryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicates.toPredicates())
+                .setHint(QueryHints.HINT_CACHEABLE, true);
+    }
+
+    /*
+    count 쿼리 -> 팀 조건이 없으면 left join 은 건수에 영향이 없으므로 join 생략
+     */
+    private JPAQuery<Long> countQuery(MemberSearchPredicates predicates) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        if (predicates.hasTeamFilter()) {
+            query.leftJoin(member.team, team);
+        }
+
+        return query
+                .where(predicates.toPredicates())
+                .setHint(QueryHints.HINT_CACHEABLE, true);
     }
 }
@@ -0,0 +1,146 @@
+package study.querydsl.repo;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+회원 검색 조건을 한 번 정규화해서 Querydsl 조건으로 만들어주는 공통 컴포넌트
+- 빈 문자열 조건, 항상 참인 나이 조건은 제거
+- 나이 하한/상한이 모두 있으면 between 하나로 합침
+- 나이 하한 > 상한이면 결과가 없으므로 SQL 을 보내지 않도록 isEmpty() 로 알려줌
+- 값 대신 Param 을 쓰는 조건(toParameterizedPredicates)도 같은 규칙으로 만듦 -> 조건 모양별로 한 번만 직렬화 (MemberSearchQueryCache)
+ */
+@Getter
+@EqualsAndHashCode
+public class MemberSearchPredicates {
+
+    //MethodHandleProjection 은 MemberTeamDtoProjectionBenchmark 에서 더 빠르다는 결과가 나오면 교체
+    public static final QMemberTeamDto MEMBER_TEAM_DTO = new QMemberTeamDto(
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name
+    );
+
+    public static final Param<String> USERNAME = new Param<>(String.class, "username");
+    public static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    public static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    public static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private final String username;
+    private final String teamName;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+    private final boolean empty;
+
+    private MemberSearchPredicates(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        this.username = username;
+        this.teamName = teamName;
+        this.ageGoe = ageGoe;
+        this.ageLoe = ageLoe;
+        this.empty = ageGoe != null && ageLoe != null && ageGoe > ageLoe;
+    }
+
+    public static MemberSearchPredicates of(MemberSearchCondition condition) {
+        Integer ageGoe = condition.getAgeGoe();
+        Integer ageLoe = condition.getAgeLoe();
+
+        return new MemberSearchPredicates(
+                hasText(condition.getUsername()) ? condition.getUsername() : null,
+                hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                ageGoe != null && ageGoe != Integer.MIN_VALUE ? ageGoe : null,
+                ageLoe != null && ageLoe != Integer.MAX_VALUE ? ageLoe : null
+        );
+    }
+
+    public boolean hasTeamFilter() {
+        return teamName != null;
+    }
+
+    /*
+    where 절에 그대로 넘길 수 있는 조건 목록 (null 은 무시됨)
+     */
+    public BooleanExpression[] toPredicates() {
+        return new BooleanExpression[]{usernameEq(), teamNameEq(), ageRange()};
+    }
+
+    /*
+    toPredicates() 와 같은 조건을 값 대신 Param 으로 (값은 parameterValues())
+    null 인 조건 조합이 같으면 같은 식이 나옴
+     */
+    public BooleanExpression[] toParameterizedPredicates() {
+        return new BooleanExpression[]{
+                usernameEq(param(username, USERNAME)),
+                teamNameEq(param(teamName, TEAM_NAME)),
+                ageRange(param(ageGoe, AGE_GOE), param(ageLoe, AGE_LOE))
+        };
+    }
+
+    public Map<ParamExpression<?>, Object> parameterValues() {
+        Map<ParamExpression<?>, Object> values = new HashMap<>();
+        putIfNotNull(values, USERNAME, username);
+        putIfNotNull(values, TEAM_NAME, teamName);
+        putIfNotNull(values, AGE_GOE, ageGoe);
+        putIfNotNull(values, AGE_LOE, ageLoe);
+        return values;
+    }
+
+    public BooleanExpression usernameEq() {
+        return usernameEq(constant(username));
+    }
+
+    public BooleanExpression teamNameEq() {
+        return teamNameEq(constant(teamName));
+    }
+
+    public BooleanExpression ageRange() {
+        return ageRange(constant(ageGoe), constant(ageLoe));
+    }
+
+    private static BooleanExpression usernameEq(Expression<String> username) {
+        return username != null ? member.username.eq(username) : null;
+    }
+
+    private static BooleanExpression teamNameEq(Expression<String> teamName) {
+        return teamName != null ? team.name.eq(teamName) : null;
+    }
+
+    private static BooleanExpression ageRange(Expression<Integer> ageGoe, Expression<Integer> ageLoe) {
+        if (ageGoe != null && ageLoe != null) {
+            return member.age.between(ageGoe, ageLoe);
+        }
+        if (ageGoe != null) {
+            return member.age.goe(ageGoe);
+        }
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private static <T> Expression<T> constant(T value) {
+        return value != null ? Expressions.constant(value) : null;
+    }
+
+    private static <T> Expression<T> param(T value, Param<T> param) {
+        return value != null ? param : null;
+    }
+
+    private static void putIfNotNull(Map<ParamExpression<?>, Object> values, Param<?> param, Object value) {
+        if (value != null) {
+            values.put(param, value);
+        }
+    }
+}
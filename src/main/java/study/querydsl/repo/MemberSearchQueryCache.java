@@ -0,0 +1,145 @@
+package study.querydsl.repo;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPAUtil;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repo.support.JdbcStatementCounter;
+import study.querydsl.repo.support.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repo.MemberSearchPredicates.MEMBER_TEAM_DTO;
+
+/*
+정규화한 검색 조건의 모양(null 이 아닌 필드 조합, 16가지)별로 JPQL 을 한 번만 만들어두고 요청마다 파라미터만 바인딩
+-> 조건은 MemberSearchPredicates.toParameterizedPredicates() 로 만들어서 JPQLSerializer 로 처음 볼 때 한 번 직렬화
+-> 요청마다 BooleanExpression 을 만들고 JPQL 로 직렬화하는 비용 제거
+-> 같은 JPQL 문자열이므로 하이버네이트 쿼리 플랜 캐시도 모양별로 한 번만 파싱
+-> 쿼리 캐시 사용 (같은 파라미터면 Member / Team 테이블이 바뀌기 전까지 SQL 없음)
+JPAQueryFactory 를 거치지 않으므로 QueryMetrics 기록은 직접 (쿼리 캐시 적중이면 statements 0)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchQueryCache {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    private static final AtomicReferenceArray<SerializedQuery> QUERY_BY_SHAPE = new AtomicReferenceArray<>(16);
+
+    private final EntityManager em;
+    private final QueryMetrics queryMetrics;
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        SerializedQuery serialized = queryOf(predicates);
+        Map<ParamExpression<?>, Object> parameterValues = predicates.parameterValues();
+
+        Query query = em.createQuery(serialized.jpql)
+                .setHint(QueryHints.HINT_CACHEABLE, true);
+        JPAUtil.setConstants(query, serialized.constants, parameterValues);
+
+        long statements = JdbcStatementCounter.current();
+        long start = System.nanoTime();
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(MEMBER_TEAM_DTO.newInstance((Object[]) row));
+        }
+
+        queryMetrics.record(serialized.shape(queryMetrics), serialized.jpql, () -> serialized.parametersOf(parameterValues),
+                System.nanoTime() - start, result.size(), JdbcStatementCounter.current() - statements);
+        return result;
+    }
+
+    /*
+    모양이 같으면 toParameterizedPredicates() 가 같은 식을 만들므로 처음 만든 것을 그대로 사용 (동시에 만들어도 결과는 같음)
+     */
+    private static SerializedQuery queryOf(MemberSearchPredicates predicates) {
+        int shape = shapeOf(predicates);
+        SerializedQuery serialized = QUERY_BY_SHAPE.get(shape);
+        if (serialized == null) {
+            serialized = SerializedQuery.of(predicates);
+            QUERY_BY_SHAPE.compareAndSet(shape, null, serialized);
+        }
+        return serialized;
+    }
+
+    private static int shapeOf(MemberSearchPredicates predicates) {
+        int shape = 0;
+        if (predicates.getUsername() != null) {
+            shape |= USERNAME;
+        }
+        if (predicates.getTeamName() != null) {
+            shape |= TEAM_NAME;
+        }
+        if (predicates.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (predicates.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    @RequiredArgsConstructor
+    private static class SerializedQuery {
+
+        private final String jpql;
+        private final List<Object> constants;
+        private volatile String shape;
+
+        /*
+        projection 은 MEMBER_TEAM_DTO 의 인자 목록으로 직렬화되므로 결과는 Object[] 행
+         */
+        static SerializedQuery of(MemberSearchPredicates predicates) {
+            JPAQuery<MemberTeamDto> query = new JPAQuery<Void>()
+                    .select(MEMBER_TEAM_DTO)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(predicates.toParameterizedPredicates());
+
+            JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+            serializer.serialize(query.getMetadata(), false, null);
+            return new SerializedQuery(serializer.toString(), List.copyOf(serializer.getConstants()));
+        }
+
+        String shape(QueryMetrics queryMetrics) {
+            String shape = this.shape;
+            if (shape == null) {
+                this.shape = shape = queryMetrics.shapeOf(jpql);
+            }
+            return shape;
+        }
+
+        List<Object> parametersOf(Map<ParamExpression<?>, Object> parameterValues) {
+            List<Object> parameters = new ArrayList<>(constants.size());
+            for (Object constant : constants) {
+                parameters.add(constant instanceof ParamExpression ? parameterValues.get(constant) : constant);
+            }
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.repo;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repo.support.InvalidCursorException;
+import study.querydsl.repo.support.KeysetCursor;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+keyset 페이징 정렬 -> 정렬 키가 같은 행이 여러 개일 수 있으므로 항상 id 를 마지막 정렬 키로 붙여서 (정렬 키, id) 로 seek
+정렬 키는 null 이 없는 컬럼만 (null 은 비교 조건에서 빠져서 건너뛰게 됨) -> username 은 nullable 이라 지원하지 않음
+(age, member_id) 인덱스가 있으면 age >= ? 범위 스캔으로 처리
+ */
+public enum MemberSliceSort {
+
+    ID("id") {
+        @Override
+        BooleanExpression after(KeysetCursor.Position position) {
+            return member.id.gt(position.getLastId());
+        }
+
+        @Override
+        OrderSpecifier<?>[] orderBy() {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+
+        @Override
+        String cursorOf(MemberTeamDto last) {
+            return KeysetCursor.encode(last.getMemberId());
+        }
+    },
+
+    AGE("age") {
+        @Override
+        BooleanExpression after(KeysetCursor.Position position) {
+            long sortValue = position.getSortValue();
+            if (sortValue != (int) sortValue) {
+                throw new InvalidCursorException("Invalid cursor age: " + sortValue);
+            }
+
+            int age = (int) sortValue;
+            return member.age.goe(age)
+                    .and(member.age.gt(age).or(member.id.gt(position.getLastId())));
+        }
+
+        @Override
+        OrderSpecifier<?>[] orderBy() {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+
+        @Override
+        String cursorOf(MemberTeamDto last) {
+            return KeysetCursor.encode(getKey(), last.getAge(), last.getMemberId());
+        }
+    };
+
+    private final String key;
+
+    MemberSliceSort(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /*
+    커서 위치 다음 행 조건 (첫 페이지면 null)
+     */
+    BooleanExpression afterCursor(String cursor) {
+        KeysetCursor.Position position = KeysetCursor.decode(cursor, key);
+        return position != null ? after(position) : null;
+    }
+
+    abstract BooleanExpression after(KeysetCursor.Position position);
+
+    abstract OrderSpecifier<?>[] orderBy();
+
+    abstract String cursorOf(MemberTeamDto last);
+}
@@ -1,18 +1,21 @@
 package study.querydsl.repo;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
+import study.querydsl.repo.support.PagingMode;
 import study.querydsl.repo.support.Querydsl4RepositorySupport;
+import study.querydsl.repo.support.TotalCountPolicy;
 
+import java.util.Collections;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
@@ -34,69 +37,100 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
         JPAQuery<Member> query = selectFrom(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                .where(predicates.toPredicates());
 
         List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
 
-        return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(query));
     }
 
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
         return applyPagination(pageable, query -> query
                 .selectFrom(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+                .where(predicates.toPredicates())
+        );
+    }
+
+    /*
+    id 만 먼저 페이징하고 해당 회원을 팀과 함께 조회 (깊은 페이지에서 넓은 행을 offset 만큼 읽지 않음)
+     */
+    public Page<Member> applyPaginationByIds(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        return applyPagination(pageable, PagingMode.IDS_FIRST, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(predicates.toPredicates())
         );
     }
 
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
         return applyPagination(pageable, contentQuery -> contentQuery
                 .selectFrom(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                ),
+                .where(predicates.toPredicates()),
                 countQuery -> countQuery
                         .select(member.id)
                         .from(member)
                         .leftJoin(member.team, team)
-                        .where(
-                                usernameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())
-                        )
+                        .where(predicates.toPredicates())
         );
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
-    }
+    public Page<Member> applyPaginationInParallel(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return Page.empty(pageable);
+        }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return applyPaginationInParallel(pageable, contentQuery -> contentQuery
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(predicates.toPredicates()),
+                countQuery -> countQuery
+                        .select(member.id)
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(predicates.toPredicates())
+        );
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
+    public Slice<Member> applyPagination(MemberSearchCondition condition, Pageable pageable, TotalCountPolicy policy) {
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+        return applyPagination(pageable, policy, contentQuery -> contentQuery
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(predicates.toPredicates()),
+                countQuery -> countQuery
+                        .select(member.id)
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(predicates.toPredicates())
+        );
     }
 }
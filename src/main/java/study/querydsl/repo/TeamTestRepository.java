@@ -0,0 +1,49 @@
+package study.querydsl.repo;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.Querydsl4RepositorySupport;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+Team 이 root 인 Querydsl4RepositorySupport 조회 -> pageable 정렬, id 페이징 모두 Team 기준
+ */
+@Repository
+public class TeamTestRepository extends Querydsl4RepositorySupport {
+
+    public TeamTestRepository() {
+        super(Team.class);
+    }
+
+    /*
+    팀 + 회원 컬렉션 fetch join 페이징 -> applyPagination 이 id 페이징으로 바꿔서 조회 (메모리 페이징 없음)
+    distinct 가 없어도 페이지 / 전체 개수는 팀 단위
+     */
+    public Page<Team> searchTeamsWithMembers(Pageable pageable, boolean distinct) {
+        return applyPagination(pageable, query -> {
+            JPAQuery<Team> teams = query.selectFrom(team);
+            if (distinct) {
+                teams.distinct();
+            }
+            return teams
+                    .leftJoin(team.members, member).fetchJoin()
+                    .orderBy(team.name.asc());
+        });
+    }
+
+    /*
+    나이가 가장 많은 회원 순으로 팀 + 회원 컬렉션 페이징 (컬렉션 컬럼 정렬)
+     */
+    public Page<Team> searchTeamsOrderByOldestMember(Pageable pageable) {
+        return applyPagination(pageable, query -> query
+                .selectFrom(team)
+                .leftJoin(team.members, member).fetchJoin()
+                .orderBy(member.age.desc())
+        );
+    }
+}
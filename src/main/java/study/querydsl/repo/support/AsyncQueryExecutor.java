@@ -0,0 +1,74 @@
+package study.querydsl.repo.support;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 조회를 별도 스레드 풀(searchQueryExecutor)에서 실행하고 {@link CompletableFuture} 로 돌려준다.
+ * <p>
+ * 조회마다 새 읽기 전용 트랜잭션(REQUIRES_NEW)에서 실행하므로 EntityManager 도 조회마다 따로 사용한다.
+ * 트랜잭션 timeout 이 JPA 쿼리 timeout 으로 적용되고, 반환한 future 도 같은 시간이 지나면 TimeoutException 으로 완료된다.
+ * 반환한 future 를 취소하거나 timeout 되면 실행 중인 작업을 interrupt 한다.
+ * 작업 스레드에도 호출한 리포지토리 메서드({@link RepositoryCall})를 넘겨서 쿼리 지표의 caller 가 같게 한다.
+ */
+@Component
+public class AsyncQueryExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration timeout;
+
+    public AsyncQueryExecutor(@Qualifier("searchQueryExecutor") ThreadPoolTaskExecutor executor,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${querydsl.async-search.timeout:5s}") Duration timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(timeout.toSeconds(), 1));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Supplier<T> task = RepositoryCall.propagate(query);
+
+        Future<?> submitted;
+        try {
+            submitted = executor.submit(() -> {
+                //실행 전에 이미 취소 / timeout 된 경우
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(transactionTemplate.execute(status -> task.get()));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, e) -> {
+                    if (e != null) {
+                        submitted.cancel(true);
+                    }
+                });
+        return result;
+    }
+}
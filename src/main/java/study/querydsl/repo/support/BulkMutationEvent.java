@@ -0,0 +1,19 @@
+package study.querydsl.repo.support;
+
+import lombok.Getter;
+
+/**
+ * 벌크 연산(update / delete)이 실행되었음을 알리는 이벤트
+ * 벌크 연산은 영속성 컨텍스트와 하이버네이트 엔티티 이벤트를 거치지 않으므로 캐시 등을 갱신할 때 이 이벤트를 사용한다.
+ */
+@Getter
+public class BulkMutationEvent {
+
+    private final Class<?> entityType;
+    private final long affectedRows;
+
+    public BulkMutationEvent(Class<?> entityType, long affectedRows) {
+        this.entityType = entityType;
+        this.affectedRows = affectedRows;
+    }
+}
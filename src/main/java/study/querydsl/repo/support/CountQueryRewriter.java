@@ -0,0 +1,432 @@
+package study.querydsl.repo.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.EqualsAndHashCode;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 컨텐츠 쿼리에서 count 쿼리를 만들어 실행한다. (deprecated 된 fetchCount 대체)
+ * <p>
+ * order by, 페이징, fetch join, projection 을 제거하고 조건에서 참조하지 않는 left join 을 제거한 뒤 아래 중 하나로 센다.
+ * <ul>
+ *     <li>count(root) -> distinct / group by 가 없을 때 (to-many left join 은 행 수를 늘리므로 남김)</li>
+ *     <li>count(distinct root) -> root 를 조회하거나, 컬렉션 fetch join 이 있거나,
+ *     root id 와 root / to-one join 의 값만 조회하는 distinct DTO / group by</li>
+ *     <li>count(distinct key) -> 한 컬럼 distinct / group by 는 그 컬럼, 여러 컬럼이면 컬럼을 이어 붙인 문자열
+ *     (null 은 count 에서 빠지므로 count(key) &lt; count(*) 이면 null 한 건을 더함)</li>
+ *     <li>결과 행 수 -> having 이 있거나 엔티티를 여러 개 조회하는 distinct 처럼 count 로 바꿀 수 없을 때만,
+ *     첫 group by 키만 조회하고 {@link #MAX_FETCH_ROWS} 건을 넘으면 실패</li>
+ * </ul>
+ * 변환 계획은 쿼리 모양({@link PlanKey} -> join, projection, group by, 조건이 참조하는 alias)별로 캐시한다.
+ * 조건의 값은 키에 들어가지 않으므로 JPQL 을 다시 직렬화하지 않는다.
+ */
+public class CountQueryRewriter {
+
+    static final int MAX_FETCH_ROWS = 10_000;
+    private static final int MAX_PLANS = 1_000;
+
+    private final Cache<PlanKey, CountQueryPlan> plans = Caffeine.newBuilder()
+            .maximumSize(MAX_PLANS)
+            .build();
+
+    /**
+     * @param queryFactory query 를 만든 팩토리 (count 쿼리도 같은 팩토리로 만들어서 같은 EntityManager / 측정을 사용)
+     * @param em           root 엔티티의 id 속성을 찾는 메타모델 용도
+     */
+    public long fetchCount(JPAQueryFactory queryFactory, EntityManager em, JPAQuery<?> query) {
+        QueryMetadata metadata = query.getMetadata();
+        CountQueryPlan plan = planOf(em, metadata);
+
+        if (plan.mode == CountMode.FETCH_ROWS) {
+            return fetchRows(query);
+        }
+
+        JPAQuery<?> countQuery = countQuery(queryFactory, plan, metadata);
+        if (plan.mode != CountMode.COUNT_DISTINCT_KEY) {
+            return orZero((Long) countQuery.fetchOne());
+        }
+
+        Tuple row = (Tuple) countQuery.fetchOne();
+        long distinct = orZero(row.get(0, Long.class));
+        boolean hasNull = orZero(row.get(1, Long.class)) < orZero(row.get(2, Long.class));
+        return hasNull ? distinct + 1 : distinct;
+    }
+
+    /*
+    변환한 count 쿼리 (테스트에서 JPQL 확인용) -> 행 수를 세야 하는 쿼리면 null
+     */
+    JPAQuery<?> countQuery(JPAQueryFactory queryFactory, EntityManager em, JPAQuery<?> query) {
+        CountQueryPlan plan = planOf(em, query.getMetadata());
+        return plan.mode != CountMode.FETCH_ROWS ? countQuery(queryFactory, plan, query.getMetadata()) : null;
+    }
+
+    private CountQueryPlan planOf(EntityManager em, QueryMetadata metadata) {
+        return plans.get(PlanKey.of(metadata), key -> CountQueryPlan.of(em, metadata));
+    }
+
+    private JPAQuery<?> countQuery(JPAQueryFactory queryFactory, CountQueryPlan plan, QueryMetadata metadata) {
+        JPAQuery<?> countQuery = queryFactory.query();
+        plan.apply(metadata, countQuery.getMetadata());
+        return countQuery;
+    }
+
+    /*
+    마지막 수단 -> 첫 group by 키(없으면 원래 projection)만 조회해서 행 수를 셈
+     */
+    private long fetchRows(JPAQuery<?> query) {
+        JPAQuery<?> rows = query.clone();
+        QueryMetadata metadata = rows.getMetadata();
+        metadata.clearOrderBy();
+        metadata.setModifiers(QueryModifiers.limit(MAX_FETCH_ROWS + 1L));
+        if (!metadata.getGroupBy().isEmpty()) {
+            metadata.setProjection(metadata.getGroupBy().get(0));
+        }
+
+        int count = rows.fetch().size();
+        if (count > MAX_FETCH_ROWS) {
+            throw new IllegalStateException("Count query would fetch more than " + MAX_FETCH_ROWS
+                    + " rows, pass a countQuery instead: " + query);
+        }
+        return count;
+    }
+
+    private static long orZero(Long count) {
+        return count != null ? count : 0L;
+    }
+
+    private enum CountMode {
+        COUNT_ROOT, COUNT_DISTINCT_ROOT, COUNT_DISTINCT_KEY, FETCH_ROWS
+    }
+
+    /*
+    변환 계획을 결정하는 쿼리 모양 -> 조건은 참조하는 alias 만 (값이 달라도 같은 계획)
+     */
+    @EqualsAndHashCode
+    private static final class PlanKey {
+
+        private final List<JoinExpression> joins;
+        private final List<Expression<?>> groupBy;
+        private final Predicate having;
+        private final boolean distinct;
+        private final Expression<?> projection;
+        private final Set<Expression<?>> whereRoots;
+
+        private PlanKey(QueryMetadata metadata) {
+            this.joins = new ArrayList<>(metadata.getJoins());
+            this.groupBy = new ArrayList<>(metadata.getGroupBy());
+            this.having = metadata.getHaving();
+            this.distinct = metadata.isDistinct();
+            this.projection = metadata.getProjection();
+            this.whereRoots = new HashSet<>();
+            collectRoots(metadata.getWhere(), whereRoots);
+        }
+
+        static PlanKey of(QueryMetadata metadata) {
+            return new PlanKey(metadata);
+        }
+    }
+
+    private static class CountQueryPlan {
+
+        private final CountMode mode;
+        private final Expression<?> key;
+        private final boolean[] keepJoins;
+
+        private CountQueryPlan(CountMode mode, Expression<?> key, boolean[] keepJoins) {
+            this.mode = mode;
+            this.key = key;
+            this.keepJoins = keepJoins;
+        }
+
+        static CountQueryPlan of(EntityManager em, QueryMetadata metadata) {
+            List<JoinExpression> joins = metadata.getJoins();
+            Expression<?> projection = metadata.getProjection();
+            Expression<?> root = aliasOf(joins.get(0).getTarget());
+
+            CountMode mode;
+            Expression<?> key = null;
+            if (metadata.getHaving() != null) {
+                mode = CountMode.FETCH_ROWS;
+            } else if (!metadata.getGroupBy().isEmpty()) {
+                List<Expression<?>> keys = metadata.getGroupBy();
+                if (keys.size() > 1 && identifiesRoot(em, metadata, keys)) {
+                    mode = CountMode.COUNT_DISTINCT_ROOT;
+                } else {
+                    key = keyOf(keys);
+                    mode = key != null ? CountMode.COUNT_DISTINCT_KEY : CountMode.FETCH_ROWS;
+                }
+            } else if (!metadata.isDistinct() && !IdFirstPagination.hasCollectionFetchJoin(metadata)) {
+                mode = CountMode.COUNT_ROOT;
+            } else if (projection == null || projection.equals(root)) {
+                mode = CountMode.COUNT_DISTINCT_ROOT;
+            } else if (projection instanceof FactoryExpression) {
+                List<Expression<?>> args = ((FactoryExpression<?>) projection).getArgs();
+                if (identifiesRoot(em, metadata, args)) {
+                    mode = CountMode.COUNT_DISTINCT_ROOT;
+                } else {
+                    key = keyOf(args);
+                    mode = key != null ? CountMode.COUNT_DISTINCT_KEY : CountMode.FETCH_ROWS;
+                }
+            } else {
+                key = projection;
+                mode = CountMode.COUNT_DISTINCT_KEY;
+            }
+
+            boolean[] keepJoins = new boolean[joins.size()];
+            if (mode == CountMode.FETCH_ROWS) {
+                return new CountQueryPlan(mode, null, keepJoins);
+            }
+
+            Set<Expression<?>> usedRoots = new HashSet<>();
+            collectRoots(metadata.getWhere(), usedRoots);
+            collectRoots(key, usedRoots);
+
+            //뒤에서부터 보면서 제거할 수 있는 join 을 고르고, 남기는 join 이 참조하는 alias 는 사용 중으로 표시
+            keepJoins[0] = true;
+            for (int i = joins.size() - 1; i > 0; i--) {
+                JoinExpression join = joins.get(i);
+                keepJoins[i] = !isRemovable(join, usedRoots, mode);
+                if (keepJoins[i]) {
+                    collectRoots(join.getTarget(), usedRoots);
+                    collectRoots(join.getCondition(), usedRoots);
+                }
+            }
+            return new CountQueryPlan(mode, key, keepJoins);
+        }
+
+        /*
+        조건에서 참조하지 않는 to-one left join 은 결과 행 수에 영향이 없음
+        to-many left join 은 행 수를 늘리므로 distinct 로 세는 경우에만 제거
+         */
+        private static boolean isRemovable(JoinExpression join, Set<Expression<?>> usedRoots, CountMode mode) {
+            if (join.getType() != JoinType.LEFTJOIN || !isAliased(join.getTarget())) {
+                return false;
+            }
+
+            Operation<?> alias = (Operation<?>) join.getTarget();
+            if (usedRoots.contains(alias.getArg(1))) {
+                return false;
+            }
+            return !isToMany(alias.getArg(0)) || mode != CountMode.COUNT_ROOT;
+        }
+
+        /*
+        root id 가 있고 나머지가 모두 root / to-one join 의 값이면 행마다 root 가 하나 -> distinct 행 수 = distinct root 수
+         */
+        private static boolean identifiesRoot(EntityManager em, QueryMetadata metadata, List<Expression<?>> exprs) {
+            List<JoinExpression> joins = metadata.getJoins();
+            Expression<?> root = aliasOf(joins.get(0).getTarget());
+            if (!(root instanceof EntityPath)) {
+                return false;
+            }
+
+            Set<Expression<?>> toOneRoots = new HashSet<>();
+            toOneRoots.add(root);
+            for (JoinExpression join : joins.subList(1, joins.size())) {
+                Expression<?> source = sourceOf(join.getTarget());
+                if (source instanceof Path && !isToMany(source) && toOneRoots.contains(((Path<?>) source).getRoot())) {
+                    toOneRoots.add(aliasOf(join.getTarget()));
+                }
+            }
+
+            EntityType<?> entityType = em.getMetamodel().entity(root.getType());
+            String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+            boolean hasRootId = false;
+            for (Expression<?> expr : exprs) {
+                Set<Expression<?>> roots = new HashSet<>();
+                collectRoots(expr, roots);
+                if (!toOneRoots.containsAll(roots)) {
+                    return false;
+                }
+                hasRootId |= expr.equals(root) || expr instanceof Path
+                        && root.equals(((Path<?>) expr).getMetadata().getParent())
+                        && idName.equals(((Path<?>) expr).getMetadata().getName());
+            }
+            return hasRootId;
+        }
+
+        /*
+        한 컬럼이면 그대로, 여러 컬럼이면 "길이:값" (null 은 "-") 을 이어 붙인 문자열 -> 엔티티가 섞여 있으면 null
+         */
+        private static Expression<?> keyOf(List<Expression<?>> exprs) {
+            if (exprs.size() == 1) {
+                return exprs.get(0);
+            }
+
+            StringBuilder template = new StringBuilder("concat(");
+            for (int i = 0; i < exprs.size(); i++) {
+                if (exprs.get(i) instanceof EntityPath || isToMany(exprs.get(i))) {
+                    return null;
+                }
+                template.append(i > 0 ? ", " : "")
+                        .append("coalesce(concat(cast(length(cast({").append(i).append("} as string)) as string), ':', cast({")
+                        .append(i).append("} as string)), '-')");
+            }
+            return Expressions.stringTemplate(template.append(')').toString(), exprs.toArray());
+        }
+
+        void apply(QueryMetadata metadata, QueryMetadata count) {
+
+            List<JoinExpression> joins = metadata.getJoins();
+            for (int i = 0; i < joins.size(); i++) {
+                if (!keepJoins[i]) {
+                    continue;
+                }
+
+                JoinExpression join = joins.get(i);
+                count.addJoin(join.getType(), join.getTarget());
+                if (join.getCondition() != null) {
+                    count.addJoinCondition(join.getCondition());
+                }
+                for (JoinFlag flag : join.getFlags()) {
+                    if (!JPAQueryMixin.FETCH.equals(flag) && !JPAQueryMixin.FETCH_ALL_PROPERTIES.equals(flag)) {
+                        count.addJoinFlag(flag);
+                    }
+                }
+            }
+
+            Predicate where = metadata.getWhere();
+            if (where != null) {
+                count.addWhere(where);
+            }
+
+            for (Map.Entry<ParamExpression<?>, Object> param : metadata.getParams().entrySet()) {
+                count.setParam((ParamExpression) param.getKey(), param.getValue());
+            }
+
+            Expression<?> root = aliasOf(joins.get(0).getTarget());
+            if (mode == CountMode.COUNT_ROOT) {
+                count.setProjection(ExpressionUtils.count(root));
+            } else if (mode == CountMode.COUNT_DISTINCT_ROOT) {
+                count.setProjection(ExpressionUtils.operation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, root));
+            } else {
+                count.setProjection(Projections.tuple(
+                        ExpressionUtils.operation(Long.class, Ops.AggOps.COUNT_DISTINCT_AGG, key),
+                        ExpressionUtils.count(key),
+                        Wildcard.count));
+            }
+        }
+
+        private static boolean isToMany(Expression<?> source) {
+            return source instanceof CollectionExpression || source instanceof MapExpression;
+        }
+
+        private static boolean isAliased(Expression<?> target) {
+            return target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS;
+        }
+
+        private static Expression<?> sourceOf(Expression<?> target) {
+            return isAliased(target) ? ((Operation<?>) target).getArg(0) : target;
+        }
+
+        private static Expression<?> aliasOf(Expression<?> target) {
+            return isAliased(target) ? ((Operation<?>) target).getArg(1) : target;
+        }
+    }
+
+    private static void collectRoots(Expression<?> expr, Set<Expression<?>> roots) {
+        if (expr != null) {
+            expr.accept(PathRootCollector.INSTANCE, roots);
+        }
+    }
+
+    /*
+    식에서 참조하는 path 의 root(alias) 를 모음
+     */
+    static class PathRootCollector implements Visitor<Void, Set<Expression<?>>> {
+
+        static final PathRootCollector INSTANCE = new PathRootCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            for (JoinExpression join : metadata.getJoins()) {
+                join.getTarget().accept(this, roots);
+                if (join.getCondition() != null) {
+                    join.getCondition().accept(this, roots);
+                }
+            }
+            if (metadata.getWhere() != null) {
+                metadata.getWhere().accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.repo.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TotalCountPolicy#ESTIMATED} 에서 사용하는 count 결과 캐시
+ * 조회 조건(쿼리 모양 + 파라미터)별로 count 결과를 ttl 동안 재사용하고, 만료되면 다음 조회 시 다시 count 한다.
+ */
+@Component
+public class EstimatedCountCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final long ttlNanos;
+    private final Map<Object, CachedCount> counts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CachedCount> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public EstimatedCountCache(@Value("${querydsl.estimated-count.ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(Object key, LongSupplier countQuery) {
+        long now = System.nanoTime();
+
+        synchronized (counts) {
+            CachedCount cached = counts.get(key);
+            if (cached != null && now - cached.loadedAt < ttlNanos) {
+                return cached.count;
+            }
+        }
+
+        long count = countQuery.getAsLong();
+
+        synchronized (counts) {
+            counts.put(key, new CachedCount(count, now));
+        }
+        return count;
+    }
+
+    public void evict(Object key) {
+        synchronized (counts) {
+            counts.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (counts) {
+            counts.clear();
+        }
+    }
+
+    private static class CachedCount {
+
+        private final long count;
+        private final long loadedAt;
+
+        private CachedCount(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
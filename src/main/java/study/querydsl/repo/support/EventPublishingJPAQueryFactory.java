@@ -0,0 +1,56 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 벌크 update / delete 를 실행한 뒤 {@link BulkMutationEvent} 를 발행하는 JPAQueryFactory
+ * <p>
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 캐시 무효화는 이 이벤트에만 의존한다.
+ * JPQL 벌크 연산은 등록된 빈(또는 Querydsl4RepositorySupport 의 update / delete)으로만 실행한다.
+ */
+public class EventPublishingJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EventPublishingJPAQueryFactory(EntityManager entityManager, ApplicationEventPublisher eventPublisher) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        return new JPAUpdateClause(entityManager, path) {
+            @Override
+            public long execute() {
+                return publish(path, super.execute());
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new JPADeleteClause(entityManager, path) {
+            @Override
+            public long execute() {
+                return publish(path, super.execute());
+            }
+        };
+    }
+
+    protected EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    private long publish(EntityPath<?> path, long affectedRows) {
+        eventPublisher.publishEvent(new BulkMutationEvent(path.getType(), affectedRows));
+        return affectedRows;
+    }
+}
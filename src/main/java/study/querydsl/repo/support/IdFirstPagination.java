@@ -0,0 +1,252 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 엔티티 페이지를 두 단계로 조회한다. (ids first, then fetch)
+ * <ol>
+ *     <li>조건 / 정렬은 그대로 두고 root 의 id 만 페이징 -> (조건, 정렬, id) 커버링 인덱스로 처리할 수 있고 넓은 행을 offset 만큼 읽지 않음</li>
+ *     <li>where id in (...) 로 엔티티를 조회하면서 to-one 연관관계는 fetch join, 1단계 id 순서대로 다시 정렬</li>
+ * </ol>
+ * 1단계에서는 조건 / 정렬에서 참조하지 않는 fetch join 과 to-one left join 을 제거하고, 2단계에서는 조건을 다시 적용하지 않는다.
+ * 컬렉션 fetch join 은 2단계에서 한 페이지의 root 에 대해서만 한 번에 조회한다. ({@link #hasCollectionFetchJoin(QueryMetadata)})
+ * root 엔티티를 그대로 조회하는 쿼리만 지원한다. ({@link #supports(QueryMetadata)})
+ * 두 쿼리 모두 넘겨받은 JPAQueryFactory 로 만든다. (em 은 id 속성을 찾는 메타모델 용도)
+ */
+public class IdFirstPagination {
+
+    public boolean supports(QueryMetadata metadata) {
+        if (metadata.getJoins().isEmpty() || !metadata.getGroupBy().isEmpty()) {
+            return false;
+        }
+
+        Expression<?> root = metadata.getJoins().get(0).getTarget();
+        Expression<?> projection = metadata.getProjection();
+        return root instanceof EntityPath && (projection == null || projection.equals(root));
+    }
+
+    /**
+     * 컬렉션 fetch join 이 있으면 하이버네이트는 limit 없이 전체를 읽어서 메모리에서 페이징한다. (HHH000104)
+     */
+    public static boolean hasCollectionFetchJoin(QueryMetadata metadata) {
+        for (JoinExpression join : metadata.getJoins()) {
+            if (join.getFlags().contains(JPAQueryMixin.FETCH) && isToMany(sourceOf(join.getTarget()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 1단계 -> root 의 id 만 조회하는 쿼리 (offset / limit 은 호출하는 쪽에서 적용)
+     * sort 는 쿼리의 order by 뒤에 붙일 pageable 정렬이다.
+     * root 가 중복될 수 있는데 정렬이 있으면 select distinct id 에 정렬 식을 쓸 수 없으므로 id 로 group by 하고
+     * 정렬 식을 min(asc) / max(desc) 로 감싼다. (컬렉션 컬럼으로 정렬하면 root 마다 가장 앞에 오는 값 기준)
+     */
+    @SuppressWarnings("unchecked")
+    public JPAQuery<Object> idQuery(JPAQueryFactory queryFactory, EntityManager em, QueryMetadata metadata,
+                                    List<OrderSpecifier<?>> sort) {
+        List<JoinExpression> joins = metadata.getJoins();
+        List<OrderSpecifier<?>> orders = new ArrayList<>(metadata.getOrderBy());
+        orders.addAll(sort);
+
+        Set<Expression<?>> usedRoots = new HashSet<>();
+        collectRoots(metadata.getWhere(), usedRoots);
+        for (OrderSpecifier<?> order : orders) {
+            collectRoots(order.getTarget(), usedRoots);
+        }
+
+        //뒤에서부터 보면서 제거할 join 을 고르고, 남기는 join 이 참조하는 alias 는 사용 중으로 표시
+        boolean[] keepJoins = new boolean[joins.size()];
+        boolean toManyKept = false;
+        keepJoins[0] = true;
+        for (int i = joins.size() - 1; i > 0; i--) {
+            JoinExpression join = joins.get(i);
+            keepJoins[i] = !isRemovable(join, usedRoots);
+            if (keepJoins[i]) {
+                toManyKept |= isToMany(sourceOf(join.getTarget()));
+                collectRoots(join.getTarget(), usedRoots);
+                collectRoots(join.getCondition(), usedRoots);
+            }
+        }
+
+        JPAQuery<Object> idQuery = (JPAQuery<Object>) queryFactory.query();
+        QueryMetadata ids = idQuery.getMetadata();
+        for (int i = 0; i < joins.size(); i++) {
+            if (!keepJoins[i]) {
+                continue;
+            }
+
+            JoinExpression join = joins.get(i);
+            ids.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                ids.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!JPAQueryMixin.FETCH.equals(flag) && !JPAQueryMixin.FETCH_ALL_PROPERTIES.equals(flag)) {
+                    ids.addJoinFlag(flag);
+                }
+            }
+        }
+
+        if (metadata.getWhere() != null) {
+            ids.addWhere(metadata.getWhere());
+        }
+        copyParams(metadata, ids);
+
+        //to-many join 이 남아 있을 때만 root 가 중복될 수 있음 (조건 / 정렬에서 참조하는 컬렉션 fetch join 은 일반 join 으로 남음)
+        Path<?> idPath = idPathOf(em, rootOf(metadata));
+        boolean distinct = toManyKept && (metadata.isDistinct() || hasCollectionFetchJoin(metadata));
+        if (distinct && !orders.isEmpty()) {
+            ids.addGroupBy(idPath);
+            for (OrderSpecifier<?> order : orders) {
+                ids.addOrderBy(aggregated(order));
+            }
+        } else {
+            ids.setDistinct(distinct);
+            for (OrderSpecifier<?> order : orders) {
+                ids.addOrderBy(order);
+            }
+        }
+        ids.setProjection(idPath);
+        return idQuery;
+    }
+
+    /**
+     * 2단계 -> id 목록의 엔티티를 조회해서 ids 순서대로 반환한다. (그 사이 삭제된 엔티티는 빠짐)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> fetchByIds(JPAQueryFactory queryFactory, EntityManager em, QueryMetadata metadata, List<?> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        EntityPath<?> root = rootOf(metadata);
+        JPAQuery<T> query = (JPAQuery<T>) queryFactory.query();
+        QueryMetadata entities = query.getMetadata();
+        entities.addJoin(JoinType.DEFAULT, root);
+
+        //root 에서 이어지는 to-one join 과 원래 fetch join 이던 컬렉션만 fetch join 으로 (조건은 1단계에서 적용됨)
+        Set<Expression<?>> joined = new HashSet<>();
+        joined.add(root);
+        List<JoinExpression> joins = metadata.getJoins();
+        for (JoinExpression join : joins.subList(1, joins.size())) {
+            Expression<?> source = sourceOf(join.getTarget());
+            if (!(source instanceof Path) || !joined.contains(((Path<?>) source).getRoot())) {
+                continue;
+            }
+            if (isToMany(source) && !join.getFlags().contains(JPAQueryMixin.FETCH)) {
+                continue;
+            }
+
+            entities.addJoin(JoinType.LEFTJOIN, join.getTarget());
+            entities.addJoinFlag(JPAQueryMixin.FETCH);
+            joined.add(aliasOf(join.getTarget()));
+        }
+
+        entities.addWhere(ExpressionUtils.in((Expression<Object>) idPathOf(em, root), (List<Object>) ids));
+        copyParams(metadata, entities);
+        entities.setProjection(root);
+
+        List<T> rows = query.fetch();
+
+        PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.putIfAbsent(persistenceUnitUtil.getIdentifier(row), row);
+        }
+
+        List<T> content = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                content.add(row);
+            }
+        }
+        return content;
+    }
+
+    /*
+    조건 / 정렬에서 참조하지 않는 left join 중 행 수를 바꾸지 않는 to-one 과, 조회용 fetch join 은 제거
+     */
+    private static boolean isRemovable(JoinExpression join, Set<Expression<?>> usedRoots) {
+        if (join.getType() != JoinType.LEFTJOIN || usedRoots.contains(aliasOf(join.getTarget()))) {
+            return false;
+        }
+        return !isToMany(sourceOf(join.getTarget())) || join.getFlags().contains(JPAQueryMixin.FETCH);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static OrderSpecifier<?> aggregated(OrderSpecifier<?> order) {
+        Expression<?> target = order.getTarget();
+        Ops.AggOps aggregate = order.isAscending() ? Ops.AggOps.MIN_AGG : Ops.AggOps.MAX_AGG;
+        return new OrderSpecifier(order.getOrder(), ExpressionUtils.operation(target.getType(), aggregate, target),
+                order.getNullHandling());
+    }
+
+    private static Path<?> idPathOf(EntityManager em, EntityPath<?> root) {
+        EntityType<?> entityType = em.getMetamodel().entity(root.getType());
+        Class<?> idType = entityType.getIdType().getJavaType();
+        return Expressions.path(idType, root, entityType.getId(idType).getName());
+    }
+
+    private static EntityPath<?> rootOf(QueryMetadata metadata) {
+        return (EntityPath<?>) metadata.getJoins().get(0).getTarget();
+    }
+
+    private static void copyParams(QueryMetadata from, QueryMetadata to) {
+        for (Map.Entry<ParamExpression<?>, Object> param : from.getParams().entrySet()) {
+            to.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+
+    private static boolean isToMany(Expression<?> source) {
+        return source instanceof CollectionExpression || source instanceof MapExpression;
+    }
+
+    private static boolean isAliased(Expression<?> target) {
+        return target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS;
+    }
+
+    private static Expression<?> sourceOf(Expression<?> target) {
+        return isAliased(target) ? ((Operation<?>) target).getArg(0) : target;
+    }
+
+    private static Expression<?> aliasOf(Expression<?> target) {
+        return isAliased(target) ? ((Operation<?>) target).getArg(1) : target;
+    }
+
+    private static void collectRoots(Expression<?> expr, Set<Expression<?>> roots) {
+        if (expr != null) {
+            expr.accept(CountQueryRewriter.PathRootCollector.INSTANCE, roots);
+        }
+    }
+}
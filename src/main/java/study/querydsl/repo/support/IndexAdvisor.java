@@ -0,0 +1,474 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.ManyToOneType;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 실행된 검색 조건의 모양(어떤 컬럼을 = / 범위 / 조인 조건으로 쓰는지)을 모아서 복합 인덱스를 제안한다.
+ * <ul>
+ *     <li>모양별 호출 수와 조건에 맞는 행 수를 기록 -> 선택도 = 평균 행 수 / 검색 대상 테이블 행 수</li>
+ *     <li>테이블별로 = 조건 컬럼(조인에 쓰인 외래키 포함)을 앞에, 범위 조건 컬럼 하나를 마지막에 둔다</li>
+ *     <li>선택도가 maxSelectivity 보다 크면 전체 스캔이 더 나으므로 제안하지 않는다</li>
+ *     <li>이미 있는 인덱스나 더 긴 제안의 앞부분과 같은 제안은 제외한다</li>
+ * </ul>
+ * 테이블 / 컬럼 이름은 하이버네이트 매핑(persister)에서 가져오므로 DDL 을 그대로 실행할 수 있다.
+ * 테이블 행 수는 {@link EstimatedCountCache} 에 ttl 동안 캐시해서 제안을 조회할 때마다 count(*) 하지 않는다.
+ * querydsl.index-advisor.enabled=false 이면 {@link #capture(Supplier)} 안에서 실행한 호출만 기록한다.
+ */
+@Slf4j
+@Component
+public class IndexAdvisor {
+
+    public enum Usage {
+        EQUALITY, RANGE
+    }
+
+    private static final Set<Ops> EQUALITY_OPS = EnumSet.of(Ops.EQ, Ops.IN, Ops.IS_NULL);
+    private static final Set<Ops> RANGE_OPS = EnumSet.of(Ops.BETWEEN, Ops.GOE, Ops.GT, Ops.LOE, Ops.LT, Ops.STARTS_WITH);
+
+    private static final ThreadLocal<Boolean> CAPTURING = new ThreadLocal<>();
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final DataSource dataSource;
+    private final EstimatedCountCache estimatedCountCache;
+    private final boolean enabled;
+    private final double maxSelectivity;
+
+    private final Map<List<ColumnUse>, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Set<String> countedTables = ConcurrentHashMap.newKeySet();
+
+    public IndexAdvisor(EntityManagerFactory emf,
+                        DataSource dataSource,
+                        EstimatedCountCache estimatedCountCache,
+                        @Value("${querydsl.index-advisor.enabled:false}") boolean enabled,
+                        @Value("${querydsl.index-advisor.max-selectivity:0.2}") double maxSelectivity) {
+        this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.dataSource = dataSource;
+        this.estimatedCountCache = estimatedCountCache;
+        this.enabled = enabled;
+        this.maxSelectivity = maxSelectivity;
+    }
+
+    public boolean isRecording() {
+        return enabled || CAPTURING.get() != null;
+    }
+
+    /**
+     * 설정과 관계없이 action 안에서 실행한 검색을 기록한다. (벤치마크 / 테스트용)
+     */
+    public <T> T capture(Supplier<T> action) {
+        if (CAPTURING.get() != null) {
+            return action.get();
+        }
+
+        CAPTURING.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            CAPTURING.remove();
+        }
+    }
+
+    /**
+     * @param root        검색 대상 엔티티 (선택도 계산의 기준 테이블)
+     * @param predicate   where 조건
+     * @param matchedRows 조건에 맞는 행 수, 모르면 -1
+     */
+    public void record(Class<?> root, Predicate predicate, long matchedRows) {
+        AbstractEntityPersister rootPersister = persisterOf(root);
+        if (predicate == null || rootPersister == null) {
+            return;
+        }
+
+        Set<ColumnUse> uses = new LinkedHashSet<>();
+        collect(rootPersister, predicate, uses);
+        if (uses.isEmpty()) {
+            return;
+        }
+
+        shapes.computeIfAbsent(List.copyOf(uses), key -> new ShapeStats(rootPersister.getTableName()))
+                .record(matchedRows);
+    }
+
+    /**
+     * 루트 엔티티를 조건의 경로에서 찾는다. (QuerydslPredicateExecutor 처럼 모든 경로가 한 엔티티에서 시작하는 경우)
+     */
+    public void record(Predicate predicate, long matchedRows) {
+        Path<?> path = firstPath(predicate);
+        if (path != null) {
+            record(path.getRoot().getType(), predicate, matchedRows);
+        }
+    }
+
+    /**
+     * 기록한 조건 모양과 캐시한 테이블 행 수를 지운다.
+     */
+    public void reset() {
+        shapes.clear();
+        countedTables.forEach(table -> estimatedCountCache.evict(new TableRows(table)));
+        countedTables.clear();
+    }
+
+    public List<Proposal> advise() {
+        Map<String, Long> tableRows = new HashMap<>();
+        Map<List<String>, Candidate> candidates = new LinkedHashMap<>();
+
+        shapes.forEach((uses, stats) -> {
+            long calls = stats.calls.sum();
+            double selectivity = stats.selectivity(tableRows.computeIfAbsent(stats.rootTable, this::estimatedRows));
+            if (selectivity > maxSelectivity) {
+                log.debug("skip shape {} selectivity={}", uses, selectivity);
+                return;
+            }
+
+            for (Map.Entry<String, List<String>> entry : indexColumns(uses).entrySet()) {
+                List<String> key = new ArrayList<>();
+                key.add(entry.getKey());
+                key.addAll(entry.getValue());
+                candidates.computeIfAbsent(key, k -> new Candidate(entry.getKey(), entry.getValue()))
+                        .add(calls, selectivity);
+            }
+        });
+
+        Map<String, List<List<String>>> existing = new HashMap<>();
+        List<Proposal> proposals = new ArrayList<>();
+        for (Candidate candidate : candidates.values()) {
+            //더 긴 제안이나 이미 있는 인덱스가 앞부분으로 처리할 수 있으면 제외
+            boolean covered = candidates.values().stream()
+                    .anyMatch(other -> other != candidate && other.covers(candidate.table, candidate.columns))
+                    || existing.computeIfAbsent(candidate.table, this::existingIndexes).stream()
+                    .anyMatch(index -> startsWith(index, candidate.columns));
+            if (!covered) {
+                proposals.add(candidate.toProposal());
+            }
+        }
+
+        proposals.sort(Comparator.comparingLong(Proposal::getCalls).reversed()
+                .thenComparingDouble(Proposal::getSelectivity));
+        return proposals;
+    }
+
+    /**
+     * 제안한 인덱스를 생성한다.
+     *
+     * @return 실행한 DDL 수
+     */
+    public int apply(List<Proposal> proposals) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            for (Proposal proposal : proposals) {
+                log.info("apply index {}", proposal.getDdl());
+                statement.execute(proposal.getDdl());
+            }
+            return proposals.size();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to apply index proposals " + proposals, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void collect(AbstractEntityPersister root, Expression<?> expression, Set<ColumnUse> uses) {
+        if (expression instanceof BooleanBuilder) {
+            expression = ((BooleanBuilder) expression).getValue();
+        }
+        if (!(expression instanceof Operation)) {
+            return;
+        }
+
+        Operation<?> operation = (Operation<?>) expression;
+        Operator operator = operation.getOperator();
+        if (operator == Ops.AND) {
+            for (Expression<?> arg : operation.getArgs()) {
+                collect(root, arg, uses);
+            }
+            return;
+        }
+
+        //or, not, like '%...' 같은 조건은 인덱스 탐색에 쓸 수 없으므로 건너뜀
+        Usage usage = EQUALITY_OPS.contains(operator) ? Usage.EQUALITY : RANGE_OPS.contains(operator) ? Usage.RANGE : null;
+        if (usage != null && operation.getArg(0) instanceof Path) {
+            addColumn(root, (Path<?>) operation.getArg(0), usage, uses);
+        }
+    }
+
+    private void addColumn(AbstractEntityPersister root, Path<?> path, Usage usage, Set<ColumnUse> uses) {
+        Path<?> parent = path.getMetadata().getParent();
+        if (parent == null) {
+            return;
+        }
+
+        String property = path.getMetadata().getName();
+        AbstractEntityPersister persister = persisterOf(parent.getType());
+
+        //member.team.id -> 조인 없이 member.team_id 로 비교
+        Path<?> owner = parent.getMetadata().getParent();
+        if (persister != null && owner != null && property.equals(persister.getIdentifierPropertyName())) {
+            property = parent.getMetadata().getName();
+            persister = persisterOf(owner.getType());
+        }
+
+        String column = persister != null ? columnOf(persister, property) : null;
+        if (column == null) {
+            return;
+        }
+
+        //다른 엔티티의 조건 -> 그 엔티티로 가는 외래키도 = 조건처럼 쓰임 (member.team_id = team.team_id)
+        if (!persister.getEntityName().equals(root.getEntityName())) {
+            String association = associationTo(root, persister);
+            String joinColumn = association != null ? columnOf(root, association) : null;
+            if (joinColumn != null) {
+                uses.add(new ColumnUse(root.getTableName(), joinColumn, Usage.EQUALITY));
+            }
+        }
+        uses.add(new ColumnUse(persister.getTableName(), column, usage));
+    }
+
+    /*
+    테이블별 인덱스 컬럼 -> = 조건 컬럼을 나온 순서대로, 범위 조건은 첫 번째 하나만 마지막에
+     */
+    private static Map<String, List<String>> indexColumns(List<ColumnUse> uses) {
+        Map<String, List<String>> equalities = new LinkedHashMap<>();
+        Map<String, String> ranges = new HashMap<>();
+        for (ColumnUse use : uses) {
+            List<String> columns = equalities.computeIfAbsent(use.table, table -> new ArrayList<>());
+            if (use.usage == Usage.EQUALITY && !columns.contains(use.column)) {
+                columns.add(use.column);
+            } else if (use.usage == Usage.RANGE) {
+                ranges.putIfAbsent(use.table, use.column);
+            }
+        }
+
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        equalities.forEach((table, columns) -> {
+            String range = ranges.get(table);
+            if (range != null && !columns.contains(range)) {
+                columns.add(range);
+            }
+            if (!columns.isEmpty()) {
+                indexes.put(table, columns);
+            }
+        });
+        return indexes;
+    }
+
+    private AbstractEntityPersister persisterOf(Class<?> type) {
+        try {
+            return (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(type);
+        } catch (HibernateException e) {
+            return null;
+        }
+    }
+
+    private static String columnOf(AbstractEntityPersister persister, String property) {
+        try {
+            String[] columns = persister.getPropertyColumnNames(property);
+            return columns.length == 1 ? columns[0].toLowerCase(Locale.ROOT) : null;
+        } catch (HibernateException e) {
+            return null;
+        }
+    }
+
+    private static String associationTo(AbstractEntityPersister root, AbstractEntityPersister target) {
+        String[] names = root.getPropertyNames();
+        Type[] types = root.getPropertyTypes();
+        for (int i = 0; i < names.length; i++) {
+            if (types[i] instanceof ManyToOneType
+                    && ((ManyToOneType) types[i]).getAssociatedEntityName().equals(target.getEntityName())) {
+                return names[i];
+            }
+        }
+        return null;
+    }
+
+    private static Path<?> firstPath(Expression<?> expression) {
+        if (expression instanceof BooleanBuilder) {
+            expression = ((BooleanBuilder) expression).getValue();
+        }
+        if (expression instanceof Path) {
+            return (Path<?>) expression;
+        }
+        if (expression instanceof Operation) {
+            for (Expression<?> arg : ((Operation<?>) expression).getArgs()) {
+                Path<?> path = firstPath(arg);
+                if (path != null) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private long estimatedRows(String table) {
+        countedTables.add(table);
+        return estimatedCountCache.get(new TableRows(table), () -> countRows(table));
+    }
+
+    private long countRows(String table) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to count rows of " + table, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /*
+    테이블의 기존 인덱스 컬럼 목록 (기본키, 외래키 인덱스 포함)
+     */
+    private List<List<String>> existingIndexes(String table) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT)
+                    : metaData.storesLowerCaseIdentifiers() ? table.toLowerCase(Locale.ROOT) : table;
+
+            Map<String, Map<Short, String>> indexes = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName != null && column != null) {
+                        indexes.computeIfAbsent(indexName, key -> new TreeMap<>())
+                                .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+
+            List<List<String>> columns = new ArrayList<>();
+            indexes.values().forEach(index -> columns.add(List.copyOf(index.values())));
+            return columns;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read indexes of " + table, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class ColumnUse {
+        private final String table;
+        private final String column;
+        private final Usage usage;
+    }
+
+    @RequiredArgsConstructor
+    private static class ShapeStats {
+        private final String rootTable;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder sampledCalls = new LongAdder();
+        private final LongAdder matchedRows = new LongAdder();
+
+        void record(long rows) {
+            calls.increment();
+            if (rows >= 0) {
+                sampledCalls.increment();
+                matchedRows.add(rows);
+            }
+        }
+
+        /*
+        행 수를 모르는 호출만 있으면 1 (제안하지 않음)
+         */
+        double selectivity(long tableRows) {
+            long sampled = sampledCalls.sum();
+            if (sampled == 0) {
+                return 1.0;
+            }
+            return tableRows == 0 ? 0.0 : Math.min(1.0, (double) matchedRows.sum() / sampled / tableRows);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Candidate {
+        private final String table;
+        private final List<String> columns;
+        private long calls;
+        private double weightedSelectivity;
+
+        void add(long shapeCalls, double selectivity) {
+            calls += shapeCalls;
+            weightedSelectivity += shapeCalls * selectivity;
+        }
+
+        boolean covers(String otherTable, List<String> otherColumns) {
+            return table.equals(otherTable) && columns.size() > otherColumns.size() && startsWith(columns, otherColumns);
+        }
+
+        Proposal toProposal() {
+            String name = "ix_" + table + "_" + String.join("_", columns);
+            String ddl = "create index " + name + " on " + table + " (" + String.join(", ", columns) + ")";
+            return new Proposal(table, columns, calls, calls == 0 ? 0.0 : weightedSelectivity / calls, ddl);
+        }
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Proposal {
+        private final String table;
+        private final List<String> columns;
+        private final long calls;
+        private final double selectivity;
+        private final String ddl;
+    }
+
+    /*
+    EstimatedCountCache 키 (검색 count 키와 겹치지 않게 따로 둠)
+     */
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class TableRows {
+        private final String table;
+    }
+}
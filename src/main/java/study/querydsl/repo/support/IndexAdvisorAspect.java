@@ -0,0 +1,92 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repo.MemberSearchPredicates;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/*
+리포지토리 검색 호출의 조건 모양과 결과 행 수를 IndexAdvisor 에 기록
+- MemberSearchCondition 을 받는 study.querydsl.repo 메서드 (support 패키지 제외)
+- QuerydslPredicateExecutor 의 Predicate 를 받는 메서드
+리포지토리 안에서 다시 리포지토리를 호출하는 경우 바깥 호출만 기록
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisorAspect {
+
+    private static final ThreadLocal<Boolean> RECORDING = new ThreadLocal<>();
+
+    private final IndexAdvisor indexAdvisor;
+
+    @Around("(execution(* study.querydsl.repo..*(..)) && !within(study.querydsl.repo.support..*))" +
+            " || execution(* org.springframework.data.querydsl.QuerydslPredicateExecutor+.*(..))")
+    public Object recordSearch(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!indexAdvisor.isRecording() || RECORDING.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        Object condition = searchCondition(joinPoint.getArgs());
+        if (condition == null) {
+            return joinPoint.proceed();
+        }
+
+        Object result;
+        RECORDING.set(Boolean.TRUE);
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            RECORDING.remove();
+        }
+
+        if (condition instanceof MemberSearchCondition) {
+            MemberSearchPredicates predicates = MemberSearchPredicates.of((MemberSearchCondition) condition);
+            if (!predicates.isEmpty()) {
+                indexAdvisor.record(Member.class, ExpressionUtils.allOf(predicates.toPredicates()), matchedRows(result));
+            }
+        } else {
+            indexAdvisor.record((Predicate) condition, matchedRows(result));
+        }
+        return result;
+    }
+
+    private static Object searchCondition(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition || arg instanceof Predicate) {
+                return arg;
+            }
+        }
+        return null;
+    }
+
+    /*
+    조건에 맞는 전체 행 수 -> Page 는 전체 개수, 목록은 크기, count(Predicate) 는 그 값
+    Slice / 비동기 결과처럼 알 수 없으면 -1
+     */
+    private static long matchedRows(Object result) {
+        if (result instanceof Page) {
+            return ((Page<?>) result).getTotalElements();
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Long) {
+            return (Long) result;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 조회 쿼리의 실행 시간, 결과 행 수, JDBC 왕복 횟수를 {@link QueryMetrics} 에 기록하는 JPAQueryFactory
+ * <p>
+ * fetch / fetchOne / fetchFirst 를 측정한다. JPQL 은 실행할 때 만든 것을 그대로 사용하므로 추가 직렬화 비용은 없다.
+ * shape 는 쿼리 객체마다 한 번 구하고, 실행 사이에 쿼리를 바꾼 경우(메타데이터 해시가 다르면)에만 다시 구한다.
+ * clone 한 쿼리도 같은 방식으로 측정한다. (count 쿼리 변환, id 페이징)
+ * 벌크 연산은 상위 클래스와 같이 {@link BulkMutationEvent} 를 발행한다.
+ */
+public class InstrumentedJPAQueryFactory extends EventPublishingJPAQueryFactory {
+
+    private final QueryMetrics queryMetrics;
+
+    public InstrumentedJPAQueryFactory(EntityManager entityManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       QueryMetrics queryMetrics) {
+        super(entityManager, eventPublisher);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new InstrumentedJPAQuery<Void>(getEntityManager(), queryMetrics);
+    }
+
+    static class InstrumentedJPAQuery<T> extends JPAQuery<T> {
+
+        private final QueryMetrics queryMetrics;
+
+        private String jpql;
+        private List<Object> parameters = Collections.emptyList();
+        private String shape;
+        private int shapeMetadataHash;
+
+        InstrumentedJPAQuery(EntityManager entityManager, QueryMetrics queryMetrics) {
+            super(entityManager);
+            this.queryMetrics = queryMetrics;
+        }
+
+        InstrumentedJPAQuery(EntityManager entityManager, JPQLTemplates templates, QueryMetadata metadata,
+                             QueryMetrics queryMetrics) {
+            super(entityManager, templates, metadata);
+            this.queryMetrics = queryMetrics;
+        }
+
+        @Override
+        public InstrumentedJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+            InstrumentedJPAQuery<T> query = new InstrumentedJPAQuery<>(entityManager, templates,
+                    getMetadata().clone(), queryMetrics);
+            query.clone(this);
+            return query;
+        }
+
+        /*
+        실행할 때 만든 JPQL, 파라미터를 기억해둠
+         */
+        @Override
+        protected JPQLSerializer serialize(boolean forCountRow) {
+            JPQLSerializer serializer = super.serialize(forCountRow);
+            jpql = serializer.toString();
+            parameters = serializer.getConstants();
+            return serializer;
+        }
+
+        @Override
+        public List<T> fetch() {
+            long statements = JdbcStatementCounter.current();
+            long start = System.nanoTime();
+
+            List<T> result = super.fetch();
+
+            record(start, result.size(), statements);
+            return result;
+        }
+
+        @Override
+        public T fetchOne() {
+            long statements = JdbcStatementCounter.current();
+            long start = System.nanoTime();
+
+            T result = super.fetchOne();
+
+            record(start, result != null ? 1 : 0, statements);
+            return result;
+        }
+
+        private void record(long start, long rows, long statementsBefore) {
+            if (jpql == null) {
+                return;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            List<Object> executed = parameters;
+            queryMetrics.record(shape(), jpql, () -> executed, elapsed, rows,
+                    JdbcStatementCounter.current() - statementsBefore);
+        }
+
+        private String shape() {
+            int metadataHash = getMetadata().hashCode();
+            if (shape == null || metadataHash != shapeMetadataHash) {
+                shape = queryMetrics.shapeOf(jpql);
+                shapeMetadataHash = metadataHash;
+            }
+            return shape;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repo.support;
+
+/**
+ * 커서를 해석할 수 없거나 (변조, 형식 오류) 다른 정렬로 만든 커서일 때 발생 -> 클라이언트 오류
+ * IllegalArgumentException 이 아니므로 리포지토리 예외 변환(InvalidDataAccessApiUsageException)을 거치지 않고 그대로 전달된다.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
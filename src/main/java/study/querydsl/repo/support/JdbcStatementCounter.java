@@ -0,0 +1,26 @@
+package study.querydsl.repo.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 SQL 을 준비할 때마다 현재 스레드의 카운터를 올리는 {@link StatementInspector}.
+ * <p>
+ * hibernate.session_factory.statement_inspector 로 등록한다.
+ * 누적 값만 기록하므로 구간의 JDBC 왕복 횟수는 {@link #current()} 의 전후 차이로 구한다.
+ * 열려있는 {@link QueryBudget} 구간이 있으면 SQL 도 함께 기록한다.
+ */
+public class JdbcStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        QueryBudget.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.repo.support;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset(seek) 페이징에 사용하는 커서 토큰
+ * 마지막으로 조회한 행의 (정렬 키 값, id) 를 감춰서 클라이언트에는 불투명한 문자열로만 노출한다.
+ * <ul>
+ *     <li>id 정렬 : "id:{id}"</li>
+ *     <li>(정렬 키, id) 정렬 : "{정렬 키 이름}:{정렬 키 값}:{id}" -> 정렬 키는 null 이 없는 정수 컬럼만</li>
+ * </ul>
+ * 정렬 키 이름이 다른 커서는 받지 않는다. (정렬을 바꾸면 첫 페이지부터)
+ * 해석할 수 없는 커서는 {@link InvalidCursorException} 으로 알린다.
+ */
+public final class KeysetCursor {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = ":";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return encode(ID + SEPARATOR + lastId);
+    }
+
+    public static String encode(String sortKey, long sortValue, Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return encode(sortKey + SEPARATOR + sortValue + SEPARATOR + lastId);
+    }
+
+    /*
+    첫 페이지(커서 없음) -> null
+     */
+    public static Long decode(String cursor) {
+        Position position = decode(cursor, ID);
+        return position != null ? position.getLastId() : null;
+    }
+
+    /*
+    첫 페이지(커서 없음) -> null, id 정렬이면 sortValue 는 null
+     */
+    public static Position decode(String cursor, String sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+
+        String[] parts = decoded.split(SEPARATOR, -1);
+        boolean idOnly = ID.equals(sortKey);
+        if (!parts[0].equals(sortKey) || parts.length != (idOnly ? 2 : 3)) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+
+        try {
+            return idOnly
+                    ? new Position(null, Long.parseLong(parts[1]))
+                    : new Position(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Getter
+    public static final class Position {
+
+        private final Long sortValue;
+        private final Long lastId;
+
+        private Position(Long sortValue, Long lastId) {
+            this.sortValue = sortValue;
+            this.lastId = lastId;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.util.PrimitiveUtils;
+import org.springframework.util.Assert;
+
+import java.io.ObjectStreamException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 생성자를 {@link MethodHandle} 로 호출해서 DTO 를 만드는 projection.
+ * <p>
+ * {@code Projections.bean / fields} 는 행마다 리플렉션으로 setter / 필드에 값을 넣고,
+ * {@code Projections.constructor} 는 행마다 인자 변환용 배열을 새로 만든다.
+ * 이 projection 은 생성할 때 생성자를 한 번 찾아 (Object[])Object 모양의 MethodHandle 로 만들어두고
+ * 행마다 결과 배열을 그대로 넘겨 호출한다. (JIT 이후 일반 생성자 호출과 비슷한 비용)
+ * <p>
+ * 인스턴스 필드의 MethodHandle 은 JIT 가 상수로 보지 않아 생성자 호출이 인라인되지 않는다.
+ * 자주 쓰는 projection 은 {@link #constructorHandle} 로 만든 핸들을 static final 필드에 두고
+ * {@link #constructor(Class, Factory, Expression[])} 로 감싸면 핸들이 상수로 접혀 생성자까지 인라인된다.
+ * (비교 : src/jmh 의 MemberTeamDtoProjectionBenchmark)
+ * <p>
+ * {@code @QueryProjection} 처럼 DTO 가 Querydsl 에 의존하지 않아도 되고, Q 타입 생성자를 쓰는 곳에 그대로 쓸 수 있다.
+ * 역직렬화하면 인자 식으로 생성자를 다시 찾는다.
+ */
+public class MethodHandleProjection<T> extends FactoryExpressionBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Expression<?>> args;
+    private final transient Factory factory;
+    private final Object[] primitiveDefaults;
+
+    private MethodHandleProjection(Class<? extends T> type, List<Expression<?>> args,
+                                   Factory factory, Object[] primitiveDefaults) {
+        super(type);
+        this.args = args;
+        this.factory = factory;
+        this.primitiveDefaults = primitiveDefaults;
+    }
+
+    /**
+     * 결과 배열로 DTO 를 만드는 함수 (보통 static final MethodHandle 을 invokeExact 하는 람다)
+     */
+    @FunctionalInterface
+    public interface Factory {
+        Object create(Object[] args) throws Throwable;
+    }
+
+    /**
+     * 인자 식의 타입과 맞는 public 생성자로 DTO 를 만든다.
+     */
+    public static <T> MethodHandleProjection<T> constructor(Class<? extends T> type, Expression<?>... args) {
+        MethodHandle handle = constructorHandle(type, args);
+        return constructor(type, values -> handle.invokeExact(values), args);
+    }
+
+    /**
+     * factory 로 DTO 를 만든다. factory 는 {@link #constructorHandle} 과 같은 생성자를 호출해야 한다.
+     * <pre>
+     * private static final MethodHandle CONSTRUCTOR = MethodHandleProjection.constructorHandle(MemberDto.class, member.username, member.age);
+     * public static final MethodHandleProjection&lt;MemberDto&gt; MEMBER_DTO = MethodHandleProjection.constructor(
+     *         MemberDto.class, values -&gt; CONSTRUCTOR.invokeExact(values), member.username, member.age);
+     * </pre>
+     */
+    public static <T> MethodHandleProjection<T> constructor(Class<? extends T> type, Factory factory,
+                                                            Expression<?>... args) {
+        Assert.notNull(type, "Type must not be null!");
+        Assert.notNull(factory, "Factory must not be null!");
+
+        Class<?>[] parameterTypes = findConstructor(type, args).getParameterTypes();
+        Object[] primitiveDefaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) {
+                primitiveDefaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+            }
+        }
+
+        return new MethodHandleProjection<>(type, Collections.unmodifiableList(Arrays.asList(args)),
+                factory, primitiveDefaults);
+    }
+
+    /**
+     * 인자 식의 타입과 맞는 public 생성자를 (Object[])Object 모양으로 호출하는 MethodHandle
+     */
+    public static MethodHandle constructorHandle(Class<?> type, Expression<?>... args) {
+        Assert.notNull(type, "Type must not be null!");
+
+        Constructor<?> constructor = findConstructor(type, args);
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(constructor);
+            return handle
+                    .asType(handle.type().generic())
+                    .asSpreader(Object[].class, constructor.getParameterCount());
+        } catch (IllegalAccessException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, Expression<?>[] args) {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != args.length) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < args.length && matches; i++) {
+                matches = PrimitiveUtils.wrap(parameterTypes[i]).isAssignableFrom(PrimitiveUtils.wrap(args[i].getType()));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new ExpressionException("No constructor found for " + type + " with parameters: "
+                + Arrays.toString(Arrays.stream(args).map(Expression::getType).toArray()));
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... values) {
+        try {
+            Object instance = factory.create(fillPrimitiveNulls(values));
+            return (T) instance;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+    }
+
+    //outer join 등으로 primitive 인자에 null 이 오면 기본값으로 대체 (Projections.constructor 와 같은 동작)
+    private Object[] fillPrimitiveNulls(Object[] values) {
+        Object[] filled = values;
+        for (int i = 0; i < primitiveDefaults.length; i++) {
+            if (primitiveDefaults[i] != null && values[i] == null) {
+                if (filled == values) {
+                    filled = values.clone();
+                }
+                filled[i] = primitiveDefaults[i];
+            }
+        }
+        return filled;
+    }
+
+    /*
+    factory 는 직렬화하지 않으므로 인자 식으로 다시 만듦
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return constructor(getType(), args.toArray(new Expression<?>[0]));
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+}
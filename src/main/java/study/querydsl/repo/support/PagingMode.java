@@ -0,0 +1,17 @@
+package study.querydsl.repo.support;
+
+/**
+ * 엔티티 페이지를 조회하는 방식
+ */
+public enum PagingMode {
+
+    /**
+     * 컨텐츠 쿼리에 그대로 offset / limit 을 적용한다.
+     */
+    OFFSET,
+
+    /**
+     * id 만 페이징한 뒤 where id in (...) 으로 엔티티를 조회한다. ({@link IdFirstPagination})
+     */
+    IDS_FIRST
+}
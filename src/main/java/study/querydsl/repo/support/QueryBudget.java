@@ -0,0 +1,156 @@
+package study.querydsl.repo.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 구간(HTTP 요청, 리포지토리 호출, 테스트 코드 블록)별로 실행한 SQL 수를 센다.
+ * <p>
+ * {@link JdbcStatementCounter} 가 SQL 을 준비할 때마다 현재 스레드에 열려있는 모든 구간에 기록한다.
+ * 하이버네이트가 넘겨주는 SQL 은 파라미터가 ? 인 상태이므로 같은 SQL 이 반복되면 파라미터만 다른 쿼리 (N+1 의심).
+ * batch fetch 의 in (?, ?, ...) 은 개수와 관계없이 같은 SQL 로 본다.
+ * 한도를 주고 연 구간은 한도를 넘는 SQL 을 실행하기 전에 {@link QueryBudgetExceededException} 을 던진다.
+ * <pre>
+ * try (QueryBudget.Scope scope = QueryBudget.open("members")) {
+ *     ...
+ * }
+ * QueryBudget.expectAtMost(2, () -> ...); //테스트에서 사용
+ * </pre>
+ */
+public final class QueryBudget {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+
+    public static final int DEFAULT_REPEAT_THRESHOLD = 3;
+
+    private QueryBudget() {
+    }
+
+    public static Scope open(String name) {
+        return open(name, -1, -1);
+    }
+
+    /*
+    SQL 을 준비할 때 maxStatements 개를 넘거나 같은 SQL 이 repeatThreshold 번째 실행되면 그 SQL 을 실행하기 전에 예외
+     */
+    public static Scope open(String name, int maxStatements, int repeatThreshold) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+
+        Scope scope = new Scope(name, maxStatements, repeatThreshold);
+        scopes.push(scope);
+        return scope;
+    }
+
+    /*
+    action 실행 중 SQL 이 maxStatements 개를 넘거나 같은 SQL 이 DEFAULT_REPEAT_THRESHOLD 번 이상 반복되면 예외
+     */
+    public static <T> T expectAtMost(int maxStatements, Supplier<T> action) {
+        T result;
+        Scope scope = open("expectAtMost(" + maxStatements + ")");
+        try {
+            result = action.get();
+        } finally {
+            scope.close();
+        }
+
+        List<String> violations = scope.check(maxStatements, DEFAULT_REPEAT_THRESHOLD);
+        if (!violations.isEmpty()) {
+            throw new QueryBudgetExceededException(scope.getName() + ": " + String.join(", ", violations));
+        }
+        return result;
+    }
+
+    static void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null || scopes.isEmpty()) {
+            return;
+        }
+
+        String normalized = IN_LIST.matcher(sql).replaceAll("in (?)");
+        for (Scope scope : scopes) {
+            scope.record(normalized);
+        }
+    }
+
+    public static class Scope implements AutoCloseable {
+
+        private final String name;
+        private final int maxStatements;
+        private final int repeatThreshold;
+        private final Map<String, Integer> counts = new HashMap<>();
+        private long statements;
+
+        private Scope(String name, int maxStatements, int repeatThreshold) {
+            this.name = name;
+            this.maxStatements = maxStatements;
+            this.repeatThreshold = repeatThreshold;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        /*
+        repeatThreshold 번 이상 실행된 SQL -> 실행 횟수
+         */
+        public Map<String, Integer> getRepeatedStatements(int repeatThreshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            counts.forEach((sql, count) -> {
+                if (count >= repeatThreshold) {
+                    repeated.put(sql, count);
+                }
+            });
+            return repeated;
+        }
+
+        public List<String> check(int maxStatements, int repeatThreshold) {
+            List<String> violations = new ArrayList<>();
+            if (statements > maxStatements) {
+                violations.add(statements + " statements (budget " + maxStatements + ")");
+            }
+            getRepeatedStatements(repeatThreshold).forEach((sql, count) ->
+                    violations.add("possible N+1, executed " + count + " times: " + sql));
+            return violations;
+        }
+
+        private void record(String sql) {
+            statements++;
+            int count = counts.merge(sql, 1, Integer::sum);
+
+            if (maxStatements >= 0 && statements > maxStatements) {
+                throw new QueryBudgetExceededException(name + ": " + statements + " statements (budget " + maxStatements + ")");
+            }
+            if (repeatThreshold > 0 && count >= repeatThreshold) {
+                throw new QueryBudgetExceededException(name + ": possible N+1, executed " + count + " times: " + sql);
+            }
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes == null) {
+                return;
+            }
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repo.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/*
+study.querydsl.repo 의 리포지토리 메서드 호출마다 (support 패키지 제외)
+- 호출한 메서드를 RepositoryCall 에 설정 (쿼리 지표의 caller, 스택을 따라가지 않음)
+- SQL 예산 확인
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetAspect {
+
+    private final QueryBudgetPolicy queryBudgetPolicy;
+
+    @Around("execution(* study.querydsl.repo..*(..)) && !within(study.querydsl.repo.support..*)")
+    public Object checkRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String previous = RepositoryCall.enter(name);
+        try {
+            return queryBudgetPolicy.isEnabled() ? proceedInScope(joinPoint, name) : joinPoint.proceed();
+        } finally {
+            RepositoryCall.exit(previous);
+        }
+    }
+
+    private Object proceedInScope(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        Object result;
+        QueryBudget.Scope scope = queryBudgetPolicy.openRepositoryCall(name);
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            scope.close();
+        }
+
+        queryBudgetPolicy.checkRepositoryCall(scope);
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.repo.support;
+
+/**
+ * 구간의 SQL 수가 예산을 넘었거나 N+1 로 의심되는 반복 SQL 이 있을 때 발생
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.repo.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * HTTP 요청 / 리포지토리 호출 구간의 SQL 예산 (querydsl.query-budget.*)
+ * <p>
+ * 기본은 꺼져 있다. (querydsl.query-budget.enabled=true 로 켬, 켜면 SQL 마다 정규화 비용이 듦)
+ * mode = log 이면 구간이 끝난 뒤 경고 로그만 남긴다.
+ * mode = fail 이면 구간 안에서 한도를 넘는 SQL 을 실행하기 전에 {@link QueryBudgetExceededException} 을 던진다.
+ * 요청이 끝난 뒤에는 응답이 이미 커밋됐을 수 있으므로 요청 구간은 끝난 뒤 예외를 던지지 않는다.
+ */
+@Slf4j
+@Component
+public class QueryBudgetPolicy {
+
+    public enum Mode {
+        LOG, FAIL
+    }
+
+    private final boolean enabled;
+    private final Mode mode;
+    private final int perRequest;
+    private final int perRepositoryCall;
+    private final int repeatThreshold;
+
+    public QueryBudgetPolicy(@Value("${querydsl.query-budget.enabled:false}") boolean enabled,
+                             @Value("${querydsl.query-budget.mode:log}") String mode,
+                             @Value("${querydsl.query-budget.per-request:50}") int perRequest,
+                             @Value("${querydsl.query-budget.per-repository-call:20}") int perRepositoryCall,
+                             @Value("${querydsl.query-budget.repeat-threshold:" + QueryBudget.DEFAULT_REPEAT_THRESHOLD + "}") int repeatThreshold) {
+        this.enabled = enabled;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.perRequest = perRequest;
+        this.perRepositoryCall = perRepositoryCall;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public QueryBudget.Scope openRequest(String name) {
+        return open(name, perRequest);
+    }
+
+    public QueryBudget.Scope openRepositoryCall(String name) {
+        return open(name, perRepositoryCall);
+    }
+
+    /*
+    fail 모드는 구간 안에서 이미 예외를 던졌으므로 끝난 뒤에는 log 모드만 확인
+     */
+    public void checkRequest(QueryBudget.Scope scope) {
+        logViolations(scope, perRequest);
+    }
+
+    public void checkRepositoryCall(QueryBudget.Scope scope) {
+        logViolations(scope, perRepositoryCall);
+    }
+
+    private QueryBudget.Scope open(String name, int maxStatements) {
+        return mode == Mode.FAIL ? QueryBudget.open(name, maxStatements, repeatThreshold) : QueryBudget.open(name);
+    }
+
+    private void logViolations(QueryBudget.Scope scope, int maxStatements) {
+        if (mode == Mode.FAIL) {
+            return;
+        }
+
+        List<String> violations = scope.check(maxStatements, repeatThreshold);
+        if (!violations.isEmpty()) {
+            log.warn("query budget exceeded {}: {}", scope.getName(), String.join(", ", violations));
+        }
+    }
+}
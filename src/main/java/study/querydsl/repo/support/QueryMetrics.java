@@ -0,0 +1,102 @@
+package study.querydsl.repo.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Querydsl 조회 실행 지표를 기록한다.
+ * <ul>
+ *     <li>querydsl.query (Timer) : 실행 시간</li>
+ *     <li>querydsl.query.rows (DistributionSummary) : 결과 행 수</li>
+ *     <li>querydsl.query.statements (DistributionSummary) : JDBC 왕복 횟수 (lazy loading 포함)</li>
+ * </ul>
+ * 태그는 shape (JPQL 해시) 와 caller (쿼리를 실행한 리포지토리 메서드, {@link RepositoryCall}).
+ * shape 는 쿼리 객체마다 {@link #shapeOf(String)} 로 한 번 구해서 넘기고, shape 별 JPQL 은 처음 볼 때 한 번 로그로 남긴다.
+ * threshold 보다 오래 걸린 쿼리는 sampleRate 비율로 JPQL 과 파라미터를 로그로 남긴다. (파라미터 목록은 이때만 만듦)
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private final MeterRegistry registry;
+    private final long slowQueryThresholdNanos;
+    private final double slowQuerySampleRate;
+
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Meters> meters = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry registry,
+                        @Value("${querydsl.metrics.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                        @Value("${querydsl.metrics.slow-query-sample-rate:0.1}") double slowQuerySampleRate) {
+        this.registry = registry;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.slowQuerySampleRate = slowQuerySampleRate;
+    }
+
+    public void record(String shape, String jpql, Supplier<List<Object>> parameters,
+                       long elapsedNanos, long rows, long statements) {
+        String caller = RepositoryCall.current();
+
+        Meters meter = meters.computeIfAbsent(new MeterKey(shape, caller), this::register);
+        meter.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meter.rows.record(rows);
+        meter.statements.record(statements);
+
+        if (elapsedNanos >= slowQueryThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate) {
+            log.warn("slow query {}ms caller={} shape={} rows={} statements={} jpql={} params={}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), caller, shape, rows, statements, jpql, parameters.get());
+        }
+    }
+
+    public String shapeOf(String jpql) {
+        String shape = Integer.toHexString(jpql.hashCode());
+        if (shapes.putIfAbsent(shape, jpql) == null) {
+            log.info("query shape {} = {}", shape, jpql);
+        }
+        return shape;
+    }
+
+    private Meters register(MeterKey key) {
+        return new Meters(
+                Timer.builder("querydsl.query")
+                        .tag("shape", key.shape)
+                        .tag("caller", key.caller)
+                        .register(registry),
+                DistributionSummary.builder("querydsl.query.rows")
+                        .tag("shape", key.shape)
+                        .tag("caller", key.caller)
+                        .register(registry),
+                DistributionSummary.builder("querydsl.query.statements")
+                        .tag("shape", key.shape)
+                        .tag("caller", key.caller)
+                        .register(registry));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class MeterKey {
+        private final String shape;
+        private final String caller;
+    }
+
+    @RequiredArgsConstructor
+    private static class Meters {
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+    }
+}
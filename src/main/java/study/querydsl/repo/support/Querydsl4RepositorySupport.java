@@ -1,12 +1,20 @@
 package study.querydsl.repo.support;
+import com.querydsl.core.QueryMetadata;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -14,10 +22,19 @@ import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -30,9 +47,14 @@ org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
 public abstract class Querydsl4RepositorySupport {
 
     private final Class domainClass;
+    private final CountQueryRewriter countQueryRewriter = new CountQueryRewriter();
+    private final IdFirstPagination idFirstPagination = new IdFirstPagination();
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private EstimatedCountCache estimatedCountCache;
+    private Executor countQueryExecutor;
+    private TransactionTemplate countTransactionTemplate;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -49,7 +71,34 @@ public abstract class Querydsl4RepositorySupport {
 
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    /*
+    컨텐츠 / count / id 페이징 쿼리 모두 등록된 팩토리로 만들어서 쿼리 측정, 벌크 연산 이벤트를 그대로 사용
+     */
+    @Autowired
+    public void setQueryFactory(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    @Autowired
+    public void setEstimatedCountCache(EstimatedCountCache estimatedCountCache) {
+        this.estimatedCountCache = estimatedCountCache;
+    }
+
+    @Autowired
+    public void setCountQueryExecutor(@Qualifier("countQueryExecutor") Executor countQueryExecutor) {
+        this.countQueryExecutor = countQueryExecutor;
+    }
+
+    @Autowired
+    public void setCountTransactionManager(PlatformTransactionManager transactionManager,
+                                           @Value("${querydsl.parallel-count.timeout:5s}") Duration timeout) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setTimeout((int) Math.max(timeout.toSeconds(), 1));
+        this.countTransactionTemplate = transactionTemplate;
     }
 
     @PostConstruct
@@ -57,6 +106,9 @@ public abstract class Querydsl4RepositorySupport {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(estimatedCountCache, "EstimatedCountCache must not be null!");
+        Assert.notNull(countQueryExecutor, "CountQueryExecutor must not be null!");
+        Assert.notNull(countTransactionTemplate, "CountTransactionTemplate must not be null!");
     }
 
     protected JPAQueryFactory getQueryFactory() {
@@ -79,19 +131,183 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    /**
+     * 벌크 update / delete 는 등록된 팩토리로만 만든다. (실행 후 {@link BulkMutationEvent} 발행 -> 캐시 무효화)
+     */
+    protected JPAUpdateClause update(EntityPath<?> path) {
+        return getQueryFactory().update(path);
+    }
+
+    protected JPADeleteClause delete(EntityPath<?> path) {
+        return getQueryFactory().delete(path);
+    }
+
+    /**
+     * 컨텐츠 쿼리를 count 쿼리로 변환해서 실행한다.
+     *
+     * @see CountQueryRewriter
+     */
+    protected long fetchCount(JPAQuery<?> query) {
+        return countQueryRewriter.fetchCount(getQueryFactory(), getEntityManager(), query);
+    }
+
+    /**
+     * 컨텐츠 쿼리에 컬렉션 fetch join 이 있으면 메모리 페이징 대신 id 페이징으로 조회한다. (이하 모든 applyPagination 동일)
+     *
+     * @see IdFirstPagination#hasCollectionFetchJoin(com.querydsl.core.QueryMetadata)
+     */
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
+        List<T> content = fetchContent(pageable, PagingMode.OFFSET, jpaQuery);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(jpaQuery));
+    }
+
+    /**
+     * 페이징 방식을 지정해서 페이징한다.
+     * IDS_FIRST 는 id 만 페이징한 뒤 where id in (...) + to-one fetch join 으로 엔티티를 조회하고 id 순서대로 정렬한다.
+     * root 엔티티를 조회하는 쿼리가 아니면 OFFSET 으로 조회한다.
+     *
+     * @see IdFirstPagination
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, PagingMode mode,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        List<T> content = fetchContent(pageable, mode, jpaQuery);
 
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(jpaQuery));
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery,
                                           Function<JPAQueryFactory, JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        List<T> content = fetchContent(pageable, PagingMode.OFFSET, jpaContentQuery);
         JPAQuery countResult = countQuery.apply(getQueryFactory());
 
-        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(countResult));
+    }
+
+    protected <T> Slice<T> applyPagination(Pageable pageable, TotalCountPolicy policy,
+                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return applyPagination(pageable, policy, contentQuery, contentQuery);
+    }
+
+    /**
+     * 전체 건수 정책에 따라 페이징한다.
+     * NONE 이면 count 없이 limit + 1 건을 조회해서 {@link Slice} 로, 나머지는 {@link Page} 로 반환한다.
+     */
+    protected <T> Slice<T> applyPagination(Pageable pageable, TotalCountPolicy policy,
+                                           Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                           Function<JPAQueryFactory, JPAQuery> countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+
+        if (policy == TotalCountPolicy.NONE) {
+            if (pageable.isUnpaged()) {
+                return new SliceImpl<T>(fetchContent(pageable, PagingMode.OFFSET, jpaContentQuery), pageable, false);
+            }
+
+            List<T> result = fetchContent(pageable, PagingMode.OFFSET, jpaContentQuery, 1);
+            boolean hasNext = result.size() > pageable.getPageSize();
+            List<T> content = hasNext ? new ArrayList<>(result.subList(0, pageable.getPageSize())) : result;
+
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+
+        List<T> content = fetchContent(pageable, PagingMode.OFFSET, jpaContentQuery);
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+
+        if (policy == TotalCountPolicy.ESTIMATED) {
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> estimatedCountCache.get(countResult.getMetadata(), () -> fetchCount(countResult)));
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(countResult));
+    }
+
+    /**
+     * 컨텐츠 쿼리와 count 쿼리를 병렬로 실행한다.
+     * count 쿼리는 별도의 읽기 전용 트랜잭션(EntityManager, 커넥션)에서 실행되므로 countQuery 는 넘겨받은 JPAQueryFactory 로만 만들어야 하고,
+     * 현재 트랜잭션에서 아직 커밋하지 않은 변경은 count 에 반영되지 않는다.
+     * 컨텐츠만으로 전체 건수를 알 수 있으면 count 를 취소한다. (이미 실행 중인 count 쿼리는 끝까지 실행됨)
+     */
+    protected <T> Page<T> applyPaginationInParallel(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                                    Function<JPAQueryFactory, JPAQuery> countQuery) {
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(
+                RepositoryCall.propagate(() -> fetchCountInNewTransaction(countQuery)), countQueryExecutor);
+
+        List<T> content;
+        try {
+            JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+            content = fetchContent(pageable, PagingMode.OFFSET, jpaContentQuery);
+        } catch (RuntimeException e) {
+            total.cancel(true);
+            throw e;
+        }
+
+        //첫 페이지 / 마지막 페이지처럼 count 가 필요 없으면 취소 (아직 시작하지 않은 count 쿼리는 실행되지 않음)
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            countUsed.set(true);
+            return joinCount(total);
+        });
+        if (!countUsed.get()) {
+            total.cancel(true);
+        }
+        return page;
+    }
+
+    private <T> List<T> fetchContent(Pageable pageable, PagingMode mode, JPAQuery<?> query) {
+        return fetchContent(pageable, mode, query, 0);
+    }
+
+    /*
+    extraRows -> 다음 페이지가 있는지 보려고 페이지 크기보다 더 읽을 행 수 (Slice)
+    컬렉션 fetch join 이 있으면 mode 와 관계없이 id 페이징
+    (root 엔티티를 조회하지 않아 id 페이징을 못 하면 hibernate.query.fail_on_pagination_over_collection_fetch 로 실패)
+     */
+    private <T> List<T> fetchContent(Pageable pageable, PagingMode mode, JPAQuery<?> query, int extraRows) {
+        QueryMetadata metadata = query.getMetadata();
+        boolean idsFirst = mode == PagingMode.IDS_FIRST || IdFirstPagination.hasCollectionFetchJoin(metadata);
+
+        if (idsFirst && pageable.isPaged() && idFirstPagination.supports(metadata)) {
+            //pageable 정렬은 idQuery 가 집계로 감쌀 수 있도록 식으로만 만들어서 넘김
+            JPAQuery<Object> sorting = new JPAQuery<>();
+            getQuerydsl().applySorting(pageable.getSort(), sorting);
+
+            JPAQuery<Object> idQuery = idFirstPagination.idQuery(getQueryFactory(), getEntityManager(), metadata,
+                    sorting.getMetadata().getOrderBy());
+            idQuery.offset(pageable.getOffset());
+            idQuery.limit(pageable.getPageSize() + (long) extraRows);
+            return idFirstPagination.fetchByIds(getQueryFactory(), getEntityManager(), metadata, idQuery.fetch());
+        }
+
+        JPQLQuery<T> contentQuery = getQuerydsl().applyPagination(pageable, (JPQLQuery<T>) query);
+        if (extraRows > 0 && pageable.isPaged()) {
+            contentQuery.limit(pageable.getPageSize() + (long) extraRows);
+        }
+        return contentQuery.fetch();
+    }
+
+    /*
+    REQUIRES_NEW 읽기 전용 트랜잭션이 새 EntityManager(커넥션)를 스레드에 바인딩 -> 공유 EntityManager / queryFactory 가 그걸 사용
+    (읽기 전용이라 Hibernate 세션도 flush 없이 read-only 로 열림)
+    호출한 스레드에서 실행되는 경우(CallerRunsPolicy)에도 호출한 쪽 트랜잭션과 분리되고, 복제본 라우팅과 트랜잭션 timeout 이 적용됨
+     */
+    private long fetchCountInNewTransaction(Function<JPAQueryFactory, JPAQuery> countQuery) {
+        return countTransactionTemplate.execute(status -> {
+            JPAQuery jpaCountQuery = countQuery.apply(queryFactory);
+            return countQueryRewriter.fetchCount(queryFactory, entityManager, jpaCountQuery);
+        });
+    }
+
+    private long joinCount(CompletableFuture<Long> total) {
+        try {
+            return total.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
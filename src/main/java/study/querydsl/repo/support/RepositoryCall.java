@@ -0,0 +1,60 @@
+package study.querydsl.repo.support;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드 ("클래스.메서드") -> {@link QueryMetrics} 의 caller 태그
+ * <p>
+ * {@link QueryBudgetAspect} 가 리포지토리 호출마다 한 번 설정하고 끝나면 바깥 호출로 되돌린다. (중첩 호출은 가장 안쪽 메서드)
+ * 다른 스레드에서 실행하는 조회는 {@link #propagate(Supplier)} 로 호출한 쪽의 메서드를 넘긴다.
+ * 리포지토리 밖에서 실행한 쿼리는 {@link #UNKNOWN}.
+ */
+public final class RepositoryCall {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryCall() {
+    }
+
+    public static String current() {
+        String name = CURRENT.get();
+        return name != null ? name : UNKNOWN;
+    }
+
+    /*
+    바깥 호출의 메서드를 돌려줌 -> exit 에 그대로 넘김
+     */
+    static String enter(String name) {
+        String previous = CURRENT.get();
+        CURRENT.set(name);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /*
+    지금 스레드의 메서드를 action 을 실행하는 스레드에 설정
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> action) {
+        String name = CURRENT.get();
+        if (name == null) {
+            return action;
+        }
+        return () -> {
+            String previous = enter(name);
+            try {
+                return action.get();
+            } finally {
+                exit(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.repo.support;
+
+/**
+ * 페이징 시 전체 건수를 얼마나 정확하게 구할지에 대한 정책
+ */
+public enum TotalCountPolicy {
+
+    /**
+     * count 쿼리로 정확한 전체 건수를 구한다.
+     */
+    EXACT,
+
+    /**
+     * 일정 시간 동안 캐시된 count 결과를 사용한다. (만료되면 다시 count)
+     */
+    ESTIMATED,
+
+    /**
+     * 전체 건수를 구하지 않는다. limit + 1 건을 조회해서 다음 페이지 존재 여부만 판단한다.
+     */
+    NONE
+}
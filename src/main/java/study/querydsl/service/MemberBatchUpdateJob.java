@@ -0,0 +1,155 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.BatchCheckpoint;
+import study.querydsl.repo.BatchCheckpointRepository;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+회원 대량 변경 배치 (나이 일괄 증가, 이름 일괄 변경 등)
+- 백그라운드 스레드에서 id 순서로 chunkSize 건씩 update 하고 chunk 마다 커밋 -> 잠금 시간 제한
+- chunk 와 체크포인트(BatchCheckpoint)를 같은 트랜잭션에서 커밋 -> 실패 후 같은 이름으로 다시 실행하면 이어서 실행
+- 트랜잭션 밖에서 sleep 해서 초당 rowsPerSecond 건 이하로 제한 -> 온라인 쿼리에 영향 최소화
+조건과 변경 내용은 저장하지 않으므로 재실행할 때 같은 조건, 같은 변경 내용으로 호출해야 함
+ */
+@Slf4j
+@Service
+public class MemberBatchUpdateJob {
+
+    private final MemberBulkMutationService memberBulkMutationService;
+    private final BatchCheckpointRepository batchCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor batchJobExecutor;
+    private final int chunkSize;
+    private final int rowsPerSecond;
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public MemberBatchUpdateJob(MemberBulkMutationService memberBulkMutationService,
+                                BatchCheckpointRepository batchCheckpointRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("batchJobExecutor") ThreadPoolTaskExecutor batchJobExecutor,
+                                @Value("${member.batch-job.chunk-size:1000}") int chunkSize,
+                                @Value("${member.batch-job.rows-per-second:5000}") int rowsPerSecond) {
+        this.memberBulkMutationService = memberBulkMutationService;
+        this.batchCheckpointRepository = batchCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchJobExecutor = batchJobExecutor;
+        this.chunkSize = chunkSize;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /*
+    이미 완료된 작업이면 바로 완료된 체크포인트를 반환
+    같은 이름의 작업이 실행 중이면 IllegalStateException
+     */
+    public CompletableFuture<BatchCheckpoint> start(String jobName, Predicate where, Consumer<JPAUpdateClause> assignments) {
+        Assert.hasText(jobName, "Job name must not be empty!");
+        Assert.notNull(assignments, "Assignments must not be null!");
+
+        if (!runningJobs.add(jobName)) {
+            throw new IllegalStateException("Job " + jobName + " is already running");
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> run(jobName, where, assignments), batchJobExecutor)
+                    .whenComplete((checkpoint, e) -> runningJobs.remove(jobName));
+        } catch (TaskRejectedException e) {
+            runningJobs.remove(jobName);
+            throw e;
+        }
+    }
+
+    private BatchCheckpoint run(String jobName, Predicate where, Consumer<JPAUpdateClause> assignments) {
+        long start = System.nanoTime();
+        long resumedRows = batchCheckpointRepository.findById(jobName)
+                .map(BatchCheckpoint::getProcessedRows)
+                .orElse(0L);
+
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Job " + jobName + " interrupted");
+                }
+
+                BatchCheckpoint checkpoint = transactionTemplate.execute(status -> nextChunk(jobName, where, assignments));
+                if (checkpoint.isCompleted()) {
+                    log.info("batch job {} completed, {} rows", jobName, checkpoint.getProcessedRows());
+                    return checkpoint;
+                }
+
+                throttle(start, checkpoint.getProcessedRows() - resumedRows);
+            }
+        } catch (RuntimeException e) {
+            markFailed(jobName);
+            log.warn("batch job {} failed, resume with the same job name", jobName, e);
+            throw e;
+        }
+    }
+
+    /*
+    chunk 하나 update + 체크포인트 갱신 (같은 트랜잭션)
+     */
+    private BatchCheckpoint nextChunk(String jobName, Predicate where, Consumer<JPAUpdateClause> assignments) {
+        BatchCheckpoint checkpoint = batchCheckpointRepository.findById(jobName)
+                .orElseGet(() -> batchCheckpointRepository.save(new BatchCheckpoint(jobName)));
+        if (checkpoint.isCompleted()) {
+            return checkpoint;
+        }
+
+        MemberBulkMutationService.ChunkResult chunk =
+                memberBulkMutationService.updateChunk(where, assignments, checkpoint.getLastId(), chunkSize);
+        if (chunk == null) {
+            checkpoint.complete();
+        } else {
+            checkpoint.advance(chunk.getLastId(), chunk.getAffectedRows());
+        }
+        return checkpoint;
+    }
+
+    /*
+    지금까지 처리한 건수를 rowsPerSecond 로 처리했을 때 걸려야 하는 시간보다 빠르면 그만큼 대기 (트랜잭션 밖)
+     */
+    private void throttle(long startNanos, long processedRows) {
+        if (rowsPerSecond <= 0) {
+            return;
+        }
+
+        long expectedNanos = processedRows * 1_000_000_000L / rowsPerSecond;
+        long waitNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Job interrupted while throttling", e);
+        }
+    }
+
+    private void markFailed(String jobName) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batchCheckpointRepository.findById(jobName).ifPresent(BatchCheckpoint::fail));
+        } catch (RuntimeException e) {
+            log.warn("failed to mark batch job {} as failed", jobName, e);
+        }
+    }
+}
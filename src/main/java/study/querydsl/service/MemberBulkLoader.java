@@ -0,0 +1,156 @@
+package study.querydsl.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberLoadRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.BulkMutationEvent;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+회원 / 팀 대량 적재
+- persist : JPA 로 저장, JDBC batch(hibernate.jdbc.batch_size)로 묶어서 insert 하고 batch 크기마다 flush / clear
+- insertMultiRow : JDBC 커넥션으로 insert into ... values (...), (...) 를 직접 실행 (가장 빠름)
+id 는 두 경로 모두 하이버네이트 시퀀스 생성기(pooled, allocationSize 50)로 받으므로 시퀀스 조회는 50건에 한 번
+호출 한 번이 트랜잭션 하나 -> 호출하는 쪽에서 적당한 크기로 나눠서 호출
+배치마다 em.clear() 를 하므로 항상 새 트랜잭션(REQUIRES_NEW)에서 실행
+-> 호출하는 쪽 트랜잭션이 있어도 그 영속성 컨텍스트의 엔티티가 준영속이 되거나 flush 전 변경을 잃지 않음
+-> 대신 호출하는 쪽에서 아직 커밋하지 않은 데이터(팀 등)는 보이지 않음, 실패하면 이 호출만 롤백
+ */
+@Service
+public class MemberBulkLoader {
+
+    private static final String TEAM_MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int rowsPerStatement;
+
+    public MemberBulkLoader(EntityManager em,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}") int batchSize,
+                            @Value("${member.bulk-load.rows-per-statement:500}") int rowsPerStatement) {
+        this.em = em;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Team> loadTeams(List<String> names) {
+        List<Team> teams = new ArrayList<>();
+        for (String name : names) {
+            Team team = new Team(name);
+            em.persist(team);
+            teams.add(team);
+        }
+        em.flush();
+        return teams;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int persist(List<MemberLoadRow> rows) {
+        int count = 0;
+        for (MemberLoadRow row : rows) {
+            Team team = row.getTeamId() != null ? em.getReference(Team.class, row.getTeamId()) : null;
+            em.persist(Member.forBulkLoad(team, row.getUsername(), row.getAge()));
+
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        afterLoad(count, false);
+        return count;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int insertMultiRow(List<MemberLoadRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory()
+                .getMetamodel()
+                .entityPersister(Member.class);
+
+        //id 는 statement 를 만들기 전에 미리 받아둠 (pooled 생성기 -> 50건마다 시퀀스 조회 한 번)
+        IdentifierGenerator generator = persister.getIdentifierGenerator();
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) generator.generate(session, null)).longValue();
+        }
+
+        session.doWork(connection -> {
+            for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+                int to = Math.min(from + rowsPerStatement, rows.size());
+
+                try (PreparedStatement statement = connection.prepareStatement(insertSql(persister, to - from))) {
+                    int index = 1;
+                    for (int i = from; i < to; i++) {
+                        MemberLoadRow row = rows.get(i);
+                        statement.setLong(index++, ids[i]);
+                        if (row.getTeamId() != null) {
+                            statement.setLong(index++, row.getTeamId());
+                        } else {
+                            statement.setNull(index++, Types.BIGINT);
+                        }
+                        statement.setString(index++, row.getUsername());
+                        statement.setInt(index++, row.getAge());
+                    }
+                    statement.executeUpdate();
+                }
+            }
+        });
+
+        afterLoad(rows.size(), true);
+        return rows.size();
+    }
+
+    private String insertSql(AbstractEntityPersister persister, int rowCount) {
+        StringBuilder sql = new StringBuilder()
+                .append("insert into ").append(persister.getTableName())
+                .append(" (").append(persister.getIdentifierColumnNames()[0])
+                .append(", ").append(persister.getPropertyColumnNames("team")[0])
+                .append(", ").append(persister.getPropertyColumnNames("username")[0])
+                .append(", ").append(persister.getPropertyColumnNames("age")[0])
+                .append(") values ");
+
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    /*
+    적재한 회원은 팀의 members 컬렉션에 반영되지 않으므로 컬렉션 캐시를 비움
+    JDBC 로 직접 넣은 경우 하이버네이트가 모르므로 쿼리 캐시와 검색 결과 캐시도 비움
+     */
+    private void afterLoad(int count, boolean bypassedHibernate) {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getCache().evictCollectionData(TEAM_MEMBERS_ROLE);
+
+        if (bypassedHibernate) {
+            sessionFactory.getCache().evictQueryRegions();
+            eventPublisher.publishEvent(new BulkMutationEvent(Member.class, count));
+        }
+    }
+}
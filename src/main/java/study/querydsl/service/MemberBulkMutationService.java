@@ -0,0 +1,210 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+회원 벌크 update / delete
+- 조건에 맞는 회원을 id 순서로 chunkSize 건씩 나눠서 실행 -> 한 번에 잠그는 행과 undo 로그 크기를 제한
+- update / delete 는 chunk 하나가 새 트랜잭션 하나 (REQUIRES_NEW -> 바깥 트랜잭션이 있어도 chunk 마다 커밋해서 잠금을 오래 잡지 않음)
+  바깥 트랜잭션이 이미 잠근(flush 한) 회원을 바꾸면 chunk 가 그 잠금을 기다리므로 회원을 변경했다면 먼저 커밋하고 호출
+- updateChunk / deleteChunk 는 호출한 쪽의 트랜잭션에서 실행 (REQUIRED, 배치 작업이 체크포인트와 함께 커밋)
+- 실행 후 영속성 컨텍스트 전체를 clear 하지 않고 해당 chunk 의 회원만 detach, 2차 캐시에서도 해당 회원만 제거
+  (바깥 트랜잭션이 있으면 그 영속성 컨텍스트에서도 chunk 범위의 회원을 detach)
+ */
+@Slf4j
+@Service
+public class MemberBulkMutationService {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate chunkTransactionTemplate;
+    private final int chunkSize;
+
+    public MemberBulkMutationService(JPAQueryFactory queryFactory,
+                                     EntityManager em,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${member.bulk-mutation.chunk-size:1000}") int chunkSize) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkMutationResult update(Predicate where, Consumer<JPAUpdateClause> assignments) {
+        Assert.notNull(assignments, "Assignments must not be null!");
+        return run(afterId -> updateChunk(where, assignments, afterId, chunkSize));
+    }
+
+    public BulkMutationResult delete(Predicate where) {
+        return run(afterId -> deleteChunk(where, afterId, chunkSize));
+    }
+
+    /*
+    afterId 다음부터 조건에 맞는 회원 size 건을 update (호출한 쪽의 트랜잭션에서 실행)
+    반환한 ChunkResult.lastId 를 다음 afterId 로 넘기면 이어서 실행, 더 이상 없으면 null
+     */
+    public ChunkResult updateChunk(Predicate where, Consumer<JPAUpdateClause> assignments, Long afterId, int size) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = nextIds(where, afterId, size);
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            JPAUpdateClause update = queryFactory.update(member);
+            assignments.accept(update);
+            long affectedRows = update
+                    .where(where, idRange(ids))
+                    .execute();
+
+            return afterMutation(ids, affectedRows);
+        });
+    }
+
+    public ChunkResult deleteChunk(Predicate where, Long afterId, int size) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = nextIds(where, afterId, size);
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            long affectedRows = queryFactory
+                    .delete(member)
+                    .where(where, idRange(ids))
+                    .execute();
+
+            return afterMutation(ids, affectedRows);
+        });
+    }
+
+    private BulkMutationResult run(ChunkExecutor executor) {
+        List<ChunkResult> chunks = new ArrayList<>();
+        Long afterId = null;
+
+        ChunkResult chunk;
+        while ((chunk = executeInNewTransaction(executor, afterId)) != null) {
+            detachFromCaller(chunk);
+            chunks.add(chunk);
+            afterId = chunk.getLastId();
+            log.debug("bulk mutation chunk {} ids [{}, {}] affected {} rows",
+                    chunks.size(), chunk.getFirstId(), chunk.getLastId(), chunk.getAffectedRows());
+        }
+        return new BulkMutationResult(chunks);
+    }
+
+    private ChunkResult executeInNewTransaction(ChunkExecutor executor, Long afterId) {
+        return chunkTransactionTemplate.execute(status -> executor.execute(afterId));
+    }
+
+    /*
+    바깥 트랜잭션의 영속성 컨텍스트에 남아 있는 chunk id 범위의 회원 detach -> 이후 조회는 변경된 DB 값
+    (범위 안에서 조건에 맞지 않는 회원도 detach 되지만 다시 조회하면 같은 값)
+     */
+    private void detachFromCaller(ChunkResult chunk) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Object> stale = new ArrayList<>();
+        for (Map.Entry<EntityKey, Object> entry : session.getPersistenceContextInternal().getEntitiesByKey().entrySet()) {
+            EntityKey key = entry.getKey();
+            if (!Member.class.getName().equals(key.getEntityName())) {
+                continue;
+            }
+
+            Long id = (Long) key.getIdentifier();
+            if (id >= chunk.getFirstId() && id <= chunk.getLastId()) {
+                stale.add(entry.getValue());
+            }
+        }
+        stale.forEach(em::detach);
+    }
+
+    /*
+    변경 전에 flush -> 쓰기 지연 중인 변경이 벌크 연산보다 먼저 반영되고, detach 할 때 잃어버리지 않음
+     */
+    private List<Long> nextIds(Predicate where, Long afterId, int size) {
+        em.flush();
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .where(where, afterId != null ? member.id.gt(afterId) : null)
+                .orderBy(member.id.asc())
+                .limit(size)
+                .fetch();
+    }
+
+    //같은 트랜잭션에서 고른 id 범위 -> 범위 안에서 조건에 맞는 회원이 곧 이번 chunk 대상
+    private BooleanExpression idRange(List<Long> ids) {
+        return member.id.between(ids.get(0), ids.get(ids.size() - 1));
+    }
+
+    private ChunkResult afterMutation(List<Long> ids, long affectedRows) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+
+        for (Long id : ids) {
+            EntityKey key = session.generateEntityKey(id, persister);
+            Object managed = session.getPersistenceContextInternal().getEntity(key);
+            if (managed != null) {
+                em.detach(managed);
+            }
+            session.getFactory().getCache().evictEntityData(Member.class, id);
+        }
+        return new ChunkResult(ids.get(0), ids.get(ids.size() - 1), affectedRows);
+    }
+
+    @FunctionalInterface
+    private interface ChunkExecutor {
+        ChunkResult execute(Long afterId);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ChunkResult {
+        private final Long firstId;
+        private final Long lastId;
+        private final long affectedRows;
+    }
+
+    @Getter
+    public static class BulkMutationResult {
+        private final List<ChunkResult> chunks;
+        private final long affectedRows;
+
+        public BulkMutationResult(List<ChunkResult> chunks) {
+            this.chunks = Collections.unmodifiableList(chunks);
+            this.affectedRows = chunks.stream().mapToLong(ChunkResult::getAffectedRows).sum();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.Getter;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.MemberSearchPredicates;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+회원 전체 내보내기 -> 목록으로 한 번에 올리지 않고 커서로 한 건씩 읽어서 바로 출력
+- JDBC fetch size 만큼씩 DB 에서 가져옴
+- clearInterval 건마다 영속성 컨텍스트를 비워서 힙 사용량을 일정하게 유지
+- 2차 캐시에 올리지 않음
+em.clear() 가 호출한 쪽의 영속성 컨텍스트를 비우지 않도록 항상 새 트랜잭션(별도 EntityManager)에서 실행
+ */
+@Service
+public class MemberExportService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final ObjectMapper objectMapper;
+    private final int clearInterval;
+
+    public MemberExportService(EntityManager em,
+                               JPAQueryFactory queryFactory,
+                               ObjectMapper objectMapper,
+                               @Value("${member.export.clear-interval:1000}") int clearInterval) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.objectMapper = objectMapper;
+        this.clearInterval = clearInterval;
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public long export(MemberSearchCondition condition, Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write("memberId,username,age,teamId,teamName\n");
+        }
+
+        MemberSearchPredicates predicates = MemberSearchPredicates.of(condition);
+        if (predicates.isEmpty()) {
+            writer.flush();
+            return 0;
+        }
+
+        long count = 0;
+        try (Stream<Member> members = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(predicates.toPredicates())
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .stream()) {
+
+            Iterator<Member> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                write(writer, format, toDto(iterator.next()));
+
+                if (++count % clearInterval == 0) {
+                    writer.flush();
+                    em.clear();
+                }
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private MemberTeamDto toDto(Member member) {
+        Team team = member.getTeam();
+        return new MemberTeamDto(
+                member.getId(),
+                member.getUsername(),
+                member.getAge(),
+                team != null ? team.getId() : null,
+                team != null ? team.getName() : null
+        );
+    }
+
+    private void write(Writer writer, Format format, MemberTeamDto dto) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(dto));
+            writer.write('\n');
+            return;
+        }
+
+        writer.write(String.valueOf(dto.getMemberId()));
+        writer.write(',');
+        writer.write(csv(dto.getUsername()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getAge()));
+        writer.write(',');
+        writer.write(dto.getTeamId() != null ? String.valueOf(dto.getTeamId()) : "");
+        writer.write(',');
+        writer.write(csv(dto.getTeamName()));
+        writer.write('\n');
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Getter
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public static Format from(String format) {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.querydsl.config.SeedProperties;
+import study.querydsl.dto.MemberLoadRow;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+대량 샘플 데이터 생성
+- 팀을 먼저 만들고, 회원은 chunkSize 단위로 나눠서 workers 개의 스레드가 나눠서 적재 (chunk 하나가 트랜잭션 하나)
+- 팀 / 나이는 Zipf 분포로 뽑음 -> 운영 데이터처럼 일부 팀 / 나이에 몰리게 만들 수 있음
+- chunk 마다 seed 와 chunk 번호로 난수를 만들기 때문에 worker 수, 실행 순서와 관계없이 같은 데이터가 만들어짐
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberSeedGenerator {
+
+    private final MemberBulkLoader memberBulkLoader;
+
+    public SeedResult generate(SeedProperties properties) {
+        Assert.isTrue(properties.getTeams() > 0, "teams must be positive!");
+        Assert.isTrue(properties.getChunkSize() > 0, "chunkSize must be positive!");
+        Assert.isTrue(properties.getWorkers() > 0, "workers must be positive!");
+        Assert.isTrue(properties.getMinAge() <= properties.getMaxAge(), "minAge must not be greater than maxAge!");
+
+        long start = System.nanoTime();
+        List<Long> teamIds = loadTeams(properties);
+
+        ZipfSampler teamSampler = new ZipfSampler(teamIds.size(), properties.getTeamSkew());
+        ZipfSampler ageSampler = new ZipfSampler(properties.getMaxAge() - properties.getMinAge() + 1, properties.getAgeSkew());
+
+        int chunks = (properties.getMembers() + properties.getChunkSize() - 1) / properties.getChunkSize();
+        AtomicLong loaded = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(properties.getWorkers(), Math.max(chunks, 1)));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int chunkIndex = chunk;
+                futures.add(executor.submit(() -> {
+                    List<MemberLoadRow> rows = chunkRows(properties, chunkIndex, teamIds, teamSampler, ageSampler);
+                    int count = properties.isMultiRowInsert()
+                            ? memberBulkLoader.insertMultiRow(rows)
+                            : memberBulkLoader.persist(rows);
+
+                    long total = loaded.addAndGet(count);
+                    log.info("seed progress {}/{} members ({} rows/sec)",
+                            total, properties.getMembers(), rowsPerSecond(total, start));
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("seed generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("seed generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SeedResult result = new SeedResult(teamIds.size(), loaded.get(), (System.nanoTime() - start) / 1_000_000);
+        log.info("seed done teams={} members={} elapsed={}ms ({} rows/sec)",
+                result.getTeams(), result.getMembers(), result.getElapsedMillis(), rowsPerSecond(result.getMembers(), start));
+        return result;
+    }
+
+    private List<Long> loadTeams(SeedProperties properties) {
+        List<Long> teamIds = new ArrayList<>(properties.getTeams());
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < properties.getTeams(); i++) {
+            names.add(teamName(i));
+            if (names.size() == properties.getChunkSize() || i == properties.getTeams() - 1) {
+                for (Team team : memberBulkLoader.loadTeams(names)) {
+                    teamIds.add(team.getId());
+                }
+                names.clear();
+            }
+        }
+        return teamIds;
+    }
+
+    List<MemberLoadRow> chunkRows(SeedProperties properties, int chunkIndex, List<Long> teamIds,
+                                  ZipfSampler teamSampler, ZipfSampler ageSampler) {
+        SplittableRandom random = new SplittableRandom(properties.getSeed() + chunkIndex * 0x9E3779B97F4A7C15L);
+
+        int from = chunkIndex * properties.getChunkSize();
+        int to = Math.min(from + properties.getChunkSize(), properties.getMembers());
+
+        List<MemberLoadRow> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Long teamId = teamIds.get(teamSampler.sample(random));
+            //순위를 minAge 부터의 나이로 옮김 -> skew 가 있으면 minAge 쪽에 몰림
+            int age = properties.getMinAge() + ageSampler.sample(random);
+            rows.add(new MemberLoadRow(teamId, "member" + i, age));
+        }
+        return rows;
+    }
+
+    //26개까지는 teamA, teamB ... (기존 샘플 데이터와 같은 이름)
+    static String teamName(int index) {
+        return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
+
+    private static long rowsPerSecond(long rows, long startNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        return rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SeedResult {
+        private final int teams;
+        private final long members;
+        private final long elapsedMillis;
+    }
+}
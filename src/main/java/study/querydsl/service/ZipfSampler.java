@@ -0,0 +1,36 @@
+package study.querydsl.service;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+0 ~ size-1 의 순위를 Zipf 분포로 뽑음 (순위 k 의 확률 ∝ 1 / (k+1)^skew)
+누적 분포를 미리 계산해두고 이진 탐색 -> 한 번 뽑는 비용 O(log size), 스레드 간 공유 가능
+ */
+public class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int size, double skew) {
+        Assert.isTrue(size > 0, "size must be positive!");
+        Assert.isTrue(skew >= 0, "skew must not be negative!");
+
+        cdf = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= sum;
+        }
+        cdf[size - 1] = 1.0;
+    }
+
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -3,6 +3,7 @@ package study.querydsl;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.QueryResults;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ExpressionException;
 import com.querydsl.core.types.ExpressionUtils;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
@@ -18,12 +19,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.SerializationUtils;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repo.support.MethodHandleProjection;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -669,6 +673,50 @@ public class QuerydslBasicTest {
         }
     }
 
+    /*
+    MethodHandleProjection : 생성자를 MethodHandle 로 호출 -> 리플렉션 없이 생성, dto 는 querydsl 에 의존하지 않음
+     */
+    @Test
+    void findDtoByMethodHandle() {
+        List<MemberTeamDto> result = queryFactory
+                .select(MethodHandleProjection.constructor(
+                        MemberTeamDto.class,
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result.get(0).getTeamName()).isEqualTo("teamA");
+        assertThat(result.get(0).getAge()).isEqualTo(10);
+    }
+
+    @Test
+    void methodHandleProjectionSerialization() {
+        //직렬화하지 않는 핸들은 역직렬화할 때 다시 만듦
+        MethodHandleProjection<MemberTeamDto> original = MethodHandleProjection.constructor(
+                MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+        MethodHandleProjection<MemberTeamDto> projection = (MethodHandleProjection<MemberTeamDto>)
+                SerializationUtils.deserialize(SerializationUtils.serialize(original));
+
+        MemberTeamDto dto = projection.newInstance(1L, "member1", null, null, null);
+
+        assertThat(dto.getUsername()).isEqualTo("member1");
+        assertThat(dto.getAge()).isEqualTo(0);
+        assertThat(projection.getArgs()).isEqualTo(original.getArgs());
+    }
+
+    @Test
+    void methodHandleProjectionWithoutConstructor() {
+        assertThatThrownBy(() -> MethodHandleProjection.constructor(MemberDto.class, member.id))
+                .isInstanceOf(ExpressionException.class);
+    }
+
     /*
     BooleanBuilder 를 이용한 동적 쿼리 생성 -> 가독성이 상대적으로 떨어짐
      */
@@ -0,0 +1,179 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.MemberJpaRepository;
+import study.querydsl.repo.support.BulkMutationEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+class MemberSearchResultCacheTest {
+
+    @Autowired MemberSearchResultCache memberSearchResultCache;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+        memberSearchResultCache.invalidateAll();
+    }
+
+    @Test
+    void cacheHitAndBulkInvalidation() {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        MemberSearchCondition sameCondition = new MemberSearchCondition();
+        sameCondition.setTeamName("teamA");
+        sameCondition.setUsername(" ");
+
+        //when
+        memberSearchResultCache.get(condition, c -> { loads.incrementAndGet(); return List.of(); });
+        memberSearchResultCache.get(sameCondition, c -> { loads.incrementAndGet(); return List.of(); });
+
+        //then -> 정규화하면 같은 조건이므로 한 번만 조회
+        assertThat(loads.get()).isEqualTo(1);
+
+        //when -> 벌크 연산 후에는 다시 조회
+        eventPublisher.publishEvent(new BulkMutationEvent(Member.class, 1));
+        memberSearchResultCache.get(condition, c -> { loads.incrementAndGet(); return List.of(); });
+
+        //then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void loadOverlappingInvalidationIsNotCached() throws Exception {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        //when -> 조회 도중 변경이 커밋되어 무효화됨
+        CompletableFuture<List<MemberTeamDto>> staleLoad = CompletableFuture.supplyAsync(() ->
+                memberSearchResultCache.get(condition, c -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(invalidated);
+                    return List.of();
+                }));
+
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        memberSearchResultCache.invalidateAll();
+        invalidated.countDown();
+        staleLoad.get(5, TimeUnit.SECONDS);
+
+        memberSearchResultCache.get(condition, c -> { loads.incrementAndGet(); return List.of(); });
+
+        //then -> 무효화 전에 시작한 조회 결과는 캐시되지 않음
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void freshResultsAfterBulkUpdate() {
+        //given
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member2", 20));
+        });
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        assertThat(memberSearchResultCache.get(condition, memberJpaRepository::searchByWhere))
+                .extracting("age")
+                .containsExactlyInAnyOrder(10, 20);
+
+        //when -> 등록된 JPAQueryFactory 의 벌크 update 는 커밋 후 BulkMutationEvent 발행
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        //then
+        assertThat(memberSearchResultCache.get(condition, memberJpaRepository::searchByWhere))
+                .extracting("age")
+                .containsExactlyInAnyOrder(11, 21);
+    }
+
+    @Test
+    void invalidateOncePerCommit() {
+        //given
+        long generation = memberSearchResultCache.generation();
+
+        //when -> 엔티티 변경 여러 건 + 벌크 연산을 한 트랜잭션에서 커밋
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member2", 20));
+            em.flush();
+
+            queryFactory
+                    .update(member)
+                    .set(member.age, member.age.add(1))
+                    .execute();
+        });
+
+        //then
+        assertThat(memberSearchResultCache.generation()).isEqualTo(generation + 1);
+    }
+
+    @Test
+    void rollbackDoesNotInvalidate() {
+        //given
+        long generation = memberSearchResultCache.generation();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member1", 10));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(memberSearchResultCache.generation()).isEqualTo(generation);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
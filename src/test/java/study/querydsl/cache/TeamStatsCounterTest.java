@@ -0,0 +1,121 @@
+package study.querydsl.cache;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+/*
+커밋 후 이벤트로 갱신되므로 @Transactional 대신 TransactionTemplate 사용
+ */
+@SpringBootTest
+class TeamStatsCounterTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JPAQueryFactory queryFactory;
+    @Autowired TeamStatsCounter teamStatsCounter;
+
+    Long teamAId;
+    Long member1Id;
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            Member member1 = new Member(teamA, "member1", 10);
+            em.persist(member1);
+            em.persist(new Member(teamA, "member2", 20));
+            em.persist(new Member(teamB, "member3", 30));
+            em.persist(new Member(teamB, "member4", 40));
+
+            teamAId = teamA.getId();
+            member1Id = member1.getId();
+        });
+        teamStatsCounter.rebuild();
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void rebuild() {
+        //when
+        List<TeamStatsDto> stats = teamStatsCounter.getStats();
+
+        //then
+        assertThat(stats).extracting("teamName", "memberCount", "ageAvg", "ageMin", "ageMax")
+                .contains(
+                        tuple("teamA", 2L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 35.0, 30, 40));
+    }
+
+    @Test
+    void incrementalUpdate() {
+        //when -> 저장, 변경(팀 이동 + 나이), 삭제
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = em.find(Team.class, teamAId);
+            em.persist(new Member(teamA, "member5", 50));
+
+            Member member1 = em.find(Member.class, member1Id);
+            member1.setAge(5);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member2 = queryFactory.selectFrom(member).where(member.username.eq("member2")).fetchOne();
+            em.remove(member2);
+        });
+
+        //then
+        TeamStatsDto teamA = statsOf("teamA");
+        assertThat(teamA.getMemberCount()).isEqualTo(2);
+        assertThat(teamA.getAgeSum()).isEqualTo(55);
+        assertThat(teamA.getAgeMin()).isEqualTo(5);
+        assertThat(teamA.getAgeMax()).isEqualTo(50);
+    }
+
+    @Test
+    void bulkUpdateRebuilds() {
+        //when
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        //then
+        TeamStatsDto teamB = statsOf("teamB");
+        assertThat(teamB.getAgeMin()).isEqualTo(31);
+        assertThat(teamB.getAgeMax()).isEqualTo(41);
+    }
+
+    private TeamStatsDto statsOf(String teamName) {
+        return teamStatsCounter.getStats().stream()
+                .filter(stats -> teamName.equals(stats.getTeamName()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HikariPoolSizingPolicyTest {
+
+    @Test
+    void replicaPoolsAreSized() {
+        //given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("member.virtual-threads.pool.spindles", "2");
+        VirtualThreadConfig.HikariPoolSizingPolicy policy = new VirtualThreadConfig.HikariPoolSizingPolicy(environment);
+
+        HikariDataSource replica0 = new HikariDataSource();
+        HikariDataSource replica1 = new HikariDataSource();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+                List.of(replica0, replica1), ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        //when
+        policy.postProcessBeforeInitialization(routing, "replicaRoutingDataSource");
+
+        //then
+        int expected = VirtualThreadConfig.HikariPoolSizingPolicy.poolSize(Runtime.getRuntime().availableProcessors(), 2);
+        assertThat(List.of(replica0, replica1)).allSatisfy(replica -> {
+            assertThat(replica.getMaximumPoolSize()).isEqualTo(expected);
+            assertThat(replica.getConnectionTimeout()).isEqualTo(2_000);
+        });
+    }
+
+    @Test
+    void explicitPoolSizeWins() {
+        //given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+        VirtualThreadConfig.HikariPoolSizingPolicy policy = new VirtualThreadConfig.HikariPoolSizingPolicy(environment);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(7);
+
+        //when
+        policy.postProcessBeforeInitialization(dataSource, "primaryDataSource");
+
+        //then
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+H2 메모리 DB 3개(primary, replica-0, replica-1)에 각각 이름을 저장해두고 어느 DB 에서 읽었는지 확인
+ */
+class ReplicaRoutingDataSourceTest {
+
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    void beforeEach() {
+        DataSource primary = database("primary");
+        List<DataSource> replicas = List.of(database("replica0"), database("replica1"));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, ReplicaRoutingDataSource.Strategy.ROUND_ROBIN));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplicas() {
+        //when
+        String first = readOnly.execute(status -> databaseName());
+        String second = readOnly.execute(status -> databaseName());
+
+        //then
+        assertThat(List.of(first, second)).containsExactlyInAnyOrder("replica0", "replica1");
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        assertThat(readWrite.execute(status -> databaseName())).isEqualTo("primary");
+        assertThat(databaseName()).isEqualTo("primary"); //트랜잭션 없음
+    }
+
+    @Test
+    void forcePrimary() {
+        //when
+        String name = ReplicaRoutingDataSource.primary(() -> readOnly.execute(status -> databaseName()));
+
+        //then
+        assertThat(name).isEqualTo("primary");
+        assertThat(readOnly.execute(status -> databaseName())).startsWith("replica");
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("select name from database_name", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists database_name (name varchar(20))");
+        jdbcTemplate.update("delete from database_name");
+        jdbcTemplate.update("insert into database_name values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.cont;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.KeysetCursor;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired EntityManager em;
+    @Autowired MockMvc mockMvc;
+
+    Long lastId;
+
+    @BeforeEach
+    void beforeEach() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        Member member1 = new Member(teamA, "member1", 10);
+        Member member2 = new Member(teamA, "member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        lastId = member1.getId();
+    }
+
+    @Test
+    void searchSlice() throws Exception {
+        mockMvc.perform(get("/v4/members")
+                        .param("cursor", KeysetCursor.encode(lastId))
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("member2"));
+    }
+
+    @Test
+    void tamperedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorOfOtherSortIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members")
+                        .param("sort", "AGE")
+                        .param("cursor", KeysetCursor.encode(lastId)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void nonPositiveSizeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
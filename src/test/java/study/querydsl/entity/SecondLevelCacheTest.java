@@ -0,0 +1,91 @@
+package study.querydsl.entity;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repo.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+2차 캐시, 쿼리 캐시 확인 -> 캐시에 올라간 뒤에는 SQL 이 실행되지 않아야 함
+커밋된 데이터만 캐시되므로 @Transactional 대신 TransactionTemplate 사용
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberRepository memberRepository;
+
+    Statistics statistics;
+    Long memberId;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+
+            Member member1 = new Member(teamA, "member1", 10);
+            em.persist(member1);
+            return member1.getId();
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void findByIdFromSecondLevelCache() {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(memberId).get().getTeam().getName());
+        statistics.clear();
+
+        //when
+        String teamName = transactionTemplate.execute(status ->
+                memberRepository.findById(memberId).get().getTeam().getName());
+
+        //then
+        assertThat(teamName).isEqualTo("teamA");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void searchFromQueryCache() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.search(condition));
+        statistics.clear();
+
+        //when
+        int size = transactionTemplate.execute(status -> memberRepository.search(condition).size());
+
+        //then
+        assertThat(size).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
@@ -13,6 +13,7 @@ import study.querydsl.entity.Team;
 import javax.persistence.EntityManager;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -71,4 +72,57 @@ class MemberJpaRepositoryTest {
         assertThat(result1).extracting("username").containsExactly("member3", "member4");
         assertThat(result2).extracting("username").containsExactly("member3", "member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchByWhereShapes() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.persist(new Member(teamB, "member3", 30));
+        em.persist(new Member(teamB, "member4", 40));
+
+        //when, then -> 조건 모양 16가지 모두 BooleanBuilder 결과와 같아야 함
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & 1) != 0 ? "member2" : null);
+            condition.setTeamName((shape & 2) != 0 ? "teamA" : null);
+            condition.setAgeGoe((shape & 4) != 0 ? 15 : null);
+            condition.setAgeLoe((shape & 8) != 0 ? 35 : null);
+
+            assertThat(memberJpaRepository.searchByWhere(condition))
+                    .extracting("username")
+                    .containsExactlyInAnyOrderElementsOf(
+                            memberJpaRepository.searchByBuilder(condition).stream()
+                                    .map(MemberTeamDto::getUsername)
+                                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void searchByWhereNormalizesCondition() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+
+        MemberSearchCondition blankUsername = new MemberSearchCondition();
+        blankUsername.setUsername(" ");
+        blankUsername.setTeamName("teamA");
+
+        MemberSearchCondition reversedAge = new MemberSearchCondition();
+        reversedAge.setAgeGoe(30);
+        reversedAge.setAgeLoe(10);
+
+        //when, then -> MemberSearchPredicates 와 같은 정규화 (빈 문자열 무시, 하한 > 상한이면 빈 결과)
+        assertThat(memberJpaRepository.searchByWhere(blankUsername))
+                .extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2");
+        assertThat(memberJpaRepository.searchByWhere(reversedAge)).isEmpty();
+    }
+}
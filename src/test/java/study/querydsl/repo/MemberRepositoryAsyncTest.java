@@ -0,0 +1,106 @@
+package study.querydsl.repo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+비동기 조회는 별도 스레드의 별도 트랜잭션에서 실행 -> 커밋된 데이터만 보이므로 @Transactional 대신 직접 저장 / 삭제
+ */
+@SpringBootTest
+class MemberRepositoryAsyncTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member2", 20));
+            em.persist(new Member(teamB, "member3", 30));
+            em.persist(new Member(teamB, "member4", 40));
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void searchInParallel() throws Exception {
+        //given
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+
+        MemberSearchCondition all = new MemberSearchCondition();
+
+        //when
+        CompletableFuture<List<MemberTeamDto>> members = memberRepository.searchAsync(teamB);
+        CompletableFuture<Page<MemberTeamDto>> page = memberRepository.searchPageAsync(all, PageRequest.of(0, 3));
+        CompletableFuture.allOf(members, page).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(members.get()).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(page.get().getContent()).hasSize(3);
+        assertThat(page.get().getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void recordCallerOnWorkerThread() throws Exception {
+        //given
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+
+        //when
+        memberRepository.searchAsync(teamB).get(5, TimeUnit.SECONDS);
+
+        //then -> 작업 스레드의 쿼리도 호출한 리포지토리 메서드로 기록
+        assertThat(meterRegistry.find("querydsl.query").timers())
+                .extracting(timer -> timer.getId().getTag("caller"))
+                .contains("MemberRepositoryCustomImpl.searchAsync");
+    }
+
+    @Test
+    void cancel() {
+        //given
+        CompletableFuture<List<MemberTeamDto>> members = memberRepository.searchAsync(new MemberSearchCondition());
+
+        //when
+        members.cancel(true);
+
+        //then
+        assertThat(members).isCancelled();
+    }
+}
@@ -5,18 +5,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repo.support.InvalidCursorException;
+import study.querydsl.repo.support.TotalCountPolicy;
 
 import javax.persistence.EntityManager;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -97,10 +103,216 @@ class MemberRepositoryTest {
 
         //then
         assertThat(result.getSize()).isEqualTo(3);
+        assertThat(result.getTotalElements()).isEqualTo(4);
         assertThat(result.getContent()).extracting("username")
                 .containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    void searchPageByTotalCountPolicy() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member(teamA, "member1", 10);
+        Member member2 = new Member(teamA, "member2", 20);
+        Member member3 = new Member(teamB, "member3", 30);
+        Member member4 = new Member(teamB, "member4", 40);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3);
+
+        //when
+        Slice<MemberTeamDto> exact = memberRepository.searchPage(condition, pageRequest, TotalCountPolicy.EXACT);
+        Slice<MemberTeamDto> none = memberRepository.searchPage(condition, pageRequest, TotalCountPolicy.NONE);
+
+        //then
+        assertThat(exact).isInstanceOf(Page.class);
+        assertThat(((Page<MemberTeamDto>) exact).getTotalElements()).isEqualTo(4);
+        assertThat(none).isNotInstanceOf(Page.class);
+        assertThat(none.hasNext()).isTrue();
+        assertThat(none.getContent()).extracting("username")
+                .containsExactly("member1", "member2", "member3");
+    }
+
+    @Test
+    void searchPageUnpaged() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.persist(new Member(teamA, "member3", 30));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        Slice<MemberTeamDto> none = memberRepository.searchPage(condition, Pageable.unpaged(), TotalCountPolicy.NONE);
+        Slice<MemberTeamDto> exact = memberRepository.searchPage(condition, Pageable.unpaged(), TotalCountPolicy.EXACT);
+
+        //then
+        assertThat(none.hasNext()).isFalse();
+        assertThat(none.getContent()).extracting("username")
+                .containsExactly("member1", "member2", "member3");
+        assertThat(((Page<MemberTeamDto>) exact).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void searchPageComplex() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member(teamA, "member1", 10);
+        Member member2 = new Member(teamA, "member2", 20);
+        Member member3 = new Member(teamB, "member3", 30);
+        Member member4 = new Member(teamB, "member4", 40);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        MemberSearchCondition teamCondition = new MemberSearchCondition();
+        teamCondition.setTeamName("teamB");
+
+        //when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+        Page<MemberTeamDto> teamResult = memberRepository.searchPageComplex(teamCondition, PageRequest.of(0, 3));
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+        assertThat(teamResult.getTotalElements()).isEqualTo(2);
+        assertThat(teamResult.getContent()).extracting("username")
+                .containsExactly("member3", "member4");
+    }
+
+    @Test
+    void searchImpossibleAgeRange() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(40);
+        condition.setAgeLoe(20);
+
+        //when
+        List<MemberTeamDto> result = memberRepository.search(condition);
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+
+        //then
+        assertThat(MemberSearchPredicates.of(condition).isEmpty()).isTrue();
+        assertThat(result).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(0);
+    }
+
+    @Test
+    void searchSlice() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member(teamA, "member1", 10);
+        Member member2 = new Member(teamA, "member2", 20);
+        Member member3 = new Member(teamB, "member3", 30);
+        Member member4 = new Member(teamB, "member4", 40);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        CursorSlice<MemberTeamDto> first = memberRepository.searchSlice(condition, null, 3);
+        CursorSlice<MemberTeamDto> second = memberRepository.searchSlice(condition, first.getNextCursor(), 3);
+
+        //then
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username")
+                .containsExactly("member1", "member2", "member3");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting("username")
+                .containsExactly("member4");
+    }
+
+    @Test
+    void searchSliceByAge() throws Exception {
+        //given -> 같은 나이가 페이지 경계에 걸치도록 저장
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member(teamA, "member1", 30));
+        em.persist(new Member(teamA, "member2", 10));
+        em.persist(new Member(teamA, "member3", 20));
+        em.persist(new Member(teamA, "member4", 20));
+        em.persist(new Member(teamA, "member5", 20));
+        em.persist(new Member(teamA, "member6", 10));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        CursorSlice<MemberTeamDto> first = memberRepository.searchSlice(condition, MemberSliceSort.AGE, null, 3);
+        CursorSlice<MemberTeamDto> second = memberRepository.searchSlice(condition, MemberSliceSort.AGE, first.getNextCursor(), 2);
+        CursorSlice<MemberTeamDto> third = memberRepository.searchSlice(condition, MemberSliceSort.AGE, second.getNextCursor(), 2);
+
+        //then -> (age, id) 순서로 빠지거나 겹치는 행 없이 이어짐
+        assertThat(first.getContent()).extracting("username")
+                .containsExactly("member2", "member6", "member3");
+        assertThat(second.getContent()).extracting("username")
+                .containsExactly("member4", "member5");
+        assertThat(third.getContent()).extracting("username")
+                .containsExactly("member1");
+        assertThat(third.isHasNext()).isFalse();
+    }
+
+    @Test
+    void searchSliceRejectsCursorOfOtherSort() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        CursorSlice<MemberTeamDto> first = memberRepository.searchSlice(condition, MemberSliceSort.ID, null, 1);
+
+        //when //then -> 정렬을 바꾸면 첫 페이지부터
+        assertThatThrownBy(() -> memberRepository.searchSlice(condition, MemberSliceSort.AGE, first.getNextCursor(), 1))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void searchSliceCapsSize() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < MemberRepositoryCustomImpl.MAX_SLICE_SIZE + 1; i++) {
+            em.persist(new Member(teamA, "member" + i, i % 100));
+        }
+        em.flush();
+        em.clear();
+
+        //when -> size + 1 이 overflow 되는 값도 MAX_SLICE_SIZE 로 제한
+        CursorSlice<MemberTeamDto> slice = memberRepository.searchSlice(new MemberSearchCondition(), null, Integer.MAX_VALUE);
+
+        //then
+        assertThat(slice.getContent()).hasSize(MemberRepositoryCustomImpl.MAX_SLICE_SIZE);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(slice.getNextCursor()).isNotNull();
+    }
+
     @Test
     void querydslPredicateExecutorTest() throws Exception {
         //given
@@ -0,0 +1,116 @@
+package study.querydsl.repo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.support.JdbcStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+count 작업을 바로 실행하지 않고 모아두는 executor 로 바꾼 전용 컨텍스트에서 count 취소 확인
+(count 가 필요한 페이지는 join 에서 멈추므로 여기서는 count 가 필요 없는 페이지만 조회)
+ */
+@SpringBootTest
+class MemberTestRepositoryDeferredCountTest {
+
+    @TestConfiguration
+    static class DeferredCountQueryExecutorConfig {
+
+        @Bean
+        @Primary
+        @Qualifier("countQueryExecutor")
+        DeferredExecutor deferredCountQueryExecutor() {
+            return new DeferredExecutor();
+        }
+    }
+
+    static class DeferredExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+    }
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberTestRepository memberTestRepository;
+    @Autowired DeferredExecutor countQueryExecutor;
+
+    @BeforeEach
+    void beforeEach() {
+        countQueryExecutor.tasks.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member2", 20));
+            em.persist(new Member(teamB, "member3", 30));
+            em.persist(new Member(teamB, "member4", 40));
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void unusedCountIsCancelled() {
+        //when -> 한 페이지에 모두 들어가므로 count 가 필요 없음
+        Page<Member> page = memberTestRepository.applyPaginationInParallel(new MemberSearchCondition(),
+                PageRequest.of(0, 10));
+
+        long statements = JdbcStatementCounter.current();
+        countQueryExecutor.tasks.forEach(Runnable::run);
+
+        //then -> 취소된 count 작업은 SQL 을 실행하지 않음
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(countQueryExecutor.tasks).hasSize(1);
+        assertThat(JdbcStatementCounter.current() - statements).isZero();
+    }
+
+    @Test
+    void lastPageSkipsCount() {
+        //when -> 마지막 페이지는 offset + 컨텐츠 수로 전체 건수를 알 수 있음
+        Page<Member> page = memberTestRepository.applyPaginationInParallel(new MemberSearchCondition(),
+                PageRequest.of(1, 3));
+
+        long statements = JdbcStatementCounter.current();
+        countQueryExecutor.tasks.forEach(Runnable::run);
+
+        //then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(JdbcStatementCounter.current() - statements).isZero();
+    }
+}
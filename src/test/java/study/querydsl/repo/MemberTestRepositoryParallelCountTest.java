@@ -0,0 +1,66 @@
+package study.querydsl.repo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+count 는 별도 EntityManager(커넥션)에서 실행되어 커밋된 데이터만 보이므로 @Transactional 대신 직접 저장 / 삭제
+ */
+@SpringBootTest
+class MemberTestRepositoryParallelCountTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member2", 20));
+            em.persist(new Member(teamB, "member3", 30));
+            em.persist(new Member(teamB, "member4", 40));
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void countInParallel() {
+        //when
+        Page<Member> page = memberTestRepository.applyPaginationInParallel(new MemberSearchCondition(),
+                PageRequest.of(0, 3, Sort.by("username")));
+
+        //then
+        assertThat(page.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+}
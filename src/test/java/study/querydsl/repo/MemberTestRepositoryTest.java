@@ -0,0 +1,104 @@
+package study.querydsl.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.persist(new Member(teamB, "member3", 30));
+        em.persist(new Member(teamB, "member4", 40));
+    }
+
+    @Test
+    void searchPageByApplyPage() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        //when
+        Page<Member> result = memberTestRepository.searchPageByApplyPage(condition, pageRequest);
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username")
+                .containsExactly("member4", "member3", "member2");
+    }
+
+    @Test
+    void applyPagination() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        //when
+        Page<Member> result1 = memberTestRepository.applyPagination(condition, PageRequest.of(0, 1));
+        Page<Member> result2 = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 1));
+
+        //then
+        assertThat(result1.getTotalElements()).isEqualTo(2);
+        assertThat(result2.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void applyPaginationByIds() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Member> page1 = memberTestRepository.applyPaginationByIds(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        Page<Member> page2 = memberTestRepository.applyPaginationByIds(condition, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then -> id 조회 순서(나이 내림차순) 유지, 팀은 fetch join 으로 함께 조회
+        assertThat(page1.getTotalElements()).isEqualTo(3);
+        assertThat(page1.getContent()).extracting("username").containsExactly("member4", "member3");
+        assertThat(page2.getContent()).extracting("username").containsExactly("member2");
+        assertThat(page1.getContent()).allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+    }
+
+    @Test
+    void applyPaginationByIdsWithTeamFilter() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Member> result = memberTestRepository.applyPaginationByIds(condition, PageRequest.of(0, 10, Sort.by("username")));
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(result.getContent()).extracting("team.name").containsOnly("teamA");
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.repo;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamTestRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired TeamTestRepository teamTestRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.persist(new Member(teamB, "member3", 30));
+        em.persist(new Member(teamB, "member4", 40));
+    }
+
+    @Test
+    void collectionFetchJoinPagedByIds() {
+        //given
+        em.flush();
+        em.clear();
+
+        //when -> 메모리 페이징이면 fail_on_pagination_over_collection_fetch 로 실패
+        Page<Team> page1 = teamTestRepository.searchTeamsWithMembers(PageRequest.of(0, 1), true);
+        Page<Team> page2 = teamTestRepository.searchTeamsWithMembers(PageRequest.of(1, 1), true);
+
+        //then
+        assertThat(page1.getTotalElements()).isEqualTo(2);
+        assertThat(page1.getContent()).extracting("name").containsExactly("teamA");
+        assertThat(page2.getContent()).extracting("name").containsExactly("teamB");
+        assertThat(Hibernate.isInitialized(page1.getContent().get(0).getMembers())).isTrue();
+        assertThat(page1.getContent().get(0).getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    void collectionFetchJoinWithoutDistinctCountsRoots() {
+        //given
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Team> page1 = teamTestRepository.searchTeamsWithMembers(PageRequest.of(0, 1), false);
+        Page<Team> page2 = teamTestRepository.searchTeamsWithMembers(PageRequest.of(1, 1), false);
+
+        //then -> 회원 행 수(4)가 아니라 팀 수
+        assertThat(page1.getTotalElements()).isEqualTo(2);
+        assertThat(page1.getTotalPages()).isEqualTo(2);
+        assertThat(page1.getContent()).extracting("name").containsExactly("teamA");
+        assertThat(page2.getContent()).extracting("name").containsExactly("teamB");
+        assertThat(page2.getContent().get(0).getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    @Test
+    void collectionFetchJoinOrderedByCollectionColumn() {
+        //given
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Team> page1 = teamTestRepository.searchTeamsOrderByOldestMember(PageRequest.of(0, 1));
+        Page<Team> page2 = teamTestRepository.searchTeamsOrderByOldestMember(PageRequest.of(1, 1));
+
+        //then -> teamB(40) 다음 teamA(20), 팀마다 한 번만
+        assertThat(page1.getTotalElements()).isEqualTo(2);
+        assertThat(page1.getContent()).extracting("name").containsExactly("teamB");
+        assertThat(page2.getContent()).extracting("name").containsExactly("teamA");
+        assertThat(Hibernate.isInitialized(page1.getContent().get(0).getMembers())).isTrue();
+        assertThat(page1.getContent().get(0).getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member3", "member4");
+    }
+}
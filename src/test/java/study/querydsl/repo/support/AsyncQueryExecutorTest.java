@@ -0,0 +1,80 @@
+package study.querydsl.repo.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+timeout 1초 -> 오래 걸리는 쿼리는 future 가 TimeoutException 으로 끝나고, 트랜잭션 timeout(JPA 쿼리 timeout)으로 쿼리도 취소되어 커넥션이 반납됨
+ */
+@SpringBootTest(properties = "querydsl.async-search.timeout=1s")
+class AsyncQueryExecutorTest {
+
+    //결과가 없는 큰 cross join -> 취소되지 않으면 수십 초 이상 걸림
+    private static final String SLOW_QUERY =
+            "select count(*) from system_range(1, 100000) a, system_range(1, 100000) b where a.x + b.x = -1";
+
+    @Autowired AsyncQueryExecutor asyncQueryExecutor;
+    @Autowired EntityManager em;
+    @Autowired DataSource dataSource;
+
+    @Test
+    void slowQueryTimesOutAndReleasesConnection() throws Exception {
+        //given
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        //when
+        long start = System.nanoTime();
+        CompletableFuture<Object> slow = asyncQueryExecutor.submit(() -> em.createNativeQuery(SLOW_QUERY).getSingleResult());
+
+        //then -> future 는 timeout 으로 끝남
+        assertThatThrownBy(() -> slow.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+
+        //then -> 실행 중이던 쿼리도 취소되어 커넥션이 풀로 돌아옴
+        awaitNoActiveConnections(pool);
+        assertThat(pool.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void cancelledSlowQueryReleasesConnection() throws Exception {
+        //given
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        CompletableFuture<Object> slow = asyncQueryExecutor.submit(() -> em.createNativeQuery(SLOW_QUERY).getSingleResult());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getActiveConnections() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pool.getActiveConnections()).isPositive();
+
+        //when -> 실행 중에 취소 (작업 스레드 interrupt)
+        slow.cancel(true);
+
+        //then
+        assertThat(slow).isCancelled();
+        awaitNoActiveConnections(pool);
+        assertThat(pool.getActiveConnections()).isZero();
+    }
+
+    private static void awaitNoActiveConnections(HikariPoolMXBean pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.getActiveConnections() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package study.querydsl.repo.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountQueryRewriterTest {
+
+    @Autowired EntityManager em;
+    @Autowired JPAQueryFactory queryFactory;
+
+    CountQueryRewriter countQueryRewriter = new CountQueryRewriter();
+
+    @BeforeEach
+    void beforeEach() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.persist(new Member(teamA, "member3", 10));
+        em.persist(new Member(teamB, "member4", 40));
+        em.persist(new Member("member5", 10));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void unusedToOneLeftJoinIsRemoved() {
+        //given
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20));
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).doesNotContain("join");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(2);
+    }
+
+    @Test
+    void toOneLeftJoinUsedByConditionIsKept() {
+        //given
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"));
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).contains("left join member1.team as team");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(3);
+    }
+
+    @Test
+    void toManyLeftJoinIsKeptWithoutDistinct() {
+        //given -> 회원 수만큼 행이 늘어남 (회원이 없는 팀도 한 행)
+        em.persist(new Team("teamC"));
+        JPAQuery<Team> query = queryFactory
+                .selectFrom(team)
+                .leftJoin(team.members, member);
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).contains("left join team.members as member1");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(query.fetch().size()).isEqualTo(5);
+    }
+
+    @Test
+    void toManyLeftJoinIsRemovedWithDistinct() {
+        //given
+        JPAQuery<Team> query = queryFactory
+                .selectFrom(team).distinct()
+                .leftJoin(team.members, member);
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).contains("count(distinct team)").doesNotContain("join");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(2);
+    }
+
+    @Test
+    void distinctNullableProjectionCountsNull() {
+        //given -> 팀이 없는 회원의 팀 이름(null)도 한 행
+        JPAQuery<String> query = queryFactory
+                .select(team.name).distinct()
+                .from(member)
+                .leftJoin(member.team, team);
+
+        //when
+        long count = countQueryRewriter.fetchCount(queryFactory, em, query);
+
+        //then
+        assertThat(query.fetch()).hasSize(3);
+        assertThat(count).isEqualTo(3);
+    }
+
+    @Test
+    void distinctDtoWithRootIdCountsRoots() {
+        //given
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name)).distinct()
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.loe(20));
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).contains("count(distinct member1)").doesNotContain("join");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(query.fetch().size()).isEqualTo(4);
+    }
+
+    @Test
+    void distinctDtoWithoutRootIdCountsColumns() {
+        //given -> (10, teamA) 는 두 회원이지만 한 행, (10, null) 도 한 행
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.age, team.name).distinct()
+                .from(member)
+                .leftJoin(member.team, team);
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery).isNotNull();
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(query.fetch().size()).isEqualTo(4);
+    }
+
+    @Test
+    void groupByOneColumnCountsNullGroup() {
+        //given
+        JPAQuery<Tuple> query = queryFactory
+                .select(team.name, member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .groupBy(team.name);
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then -> teamA, teamB, null
+        assertThat(countQuery.toString()).contains("count(distinct team.name)").doesNotContain("group by");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(query.fetch().size()).isEqualTo(3);
+    }
+
+    @Test
+    void groupByColumns() {
+        //given
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.age, team.name, member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .groupBy(member.age, team.name);
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then
+        assertThat(countQuery.toString()).doesNotContain("group by");
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(query.fetch().size()).isEqualTo(4);
+    }
+
+    @Test
+    void groupByWithHavingFetchesGroupKeys() {
+        //given
+        JPAQuery<Tuple> query = queryFactory
+                .select(team.name, member.count())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .having(member.count().goe(2L));
+
+        //when
+        JPAQuery<?> countQuery = countQueryRewriter.countQuery(queryFactory, em, query);
+
+        //then -> count 로 바꿀 수 없어서 그룹 키만 조회
+        assertThat(countQuery).isNull();
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query)).isEqualTo(1);
+    }
+
+    @Test
+    void samePlanForDifferentValues() {
+        //given
+        JPAQuery<Member> query1 = queryFactory.selectFrom(member).leftJoin(member.team, team).where(member.age.goe(20));
+        JPAQuery<Member> query2 = queryFactory.selectFrom(member).leftJoin(member.team, team).where(member.age.goe(40));
+
+        //when //then -> 조건 값이 달라도 같은 계획으로 값만 바꿔서 실행
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query1)).isEqualTo(2);
+        assertThat(countQueryRewriter.fetchCount(queryFactory, em, query2)).isEqualTo(1);
+    }
+}
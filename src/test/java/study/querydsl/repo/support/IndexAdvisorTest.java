@@ -0,0 +1,133 @@
+package study.querydsl.repo.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/*
+인덱스 DDL 은 H2 에서 바로 커밋되므로 @Transactional 대신 TransactionTemplate 사용
+ */
+@SpringBootTest
+class IndexAdvisorTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberRepository memberRepository;
+    @Autowired IndexAdvisor indexAdvisor;
+
+    Long teamAId;
+    List<IndexAdvisor.Proposal> applied = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+
+            for (int i = 0; i < 20; i++) {
+                em.persist(new Member(i % 2 == 0 ? teamA : teamB, "member" + i, i));
+            }
+            teamAId = teamA.getId();
+        });
+        indexAdvisor.reset();
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            applied.forEach(proposal -> em.createNativeQuery("drop index if exists " + proposal.getDdl().split(" ")[2]).executeUpdate());
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+        indexAdvisor.reset();
+    }
+
+    @Test
+    void advise() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(11);
+        condition.setAgeLoe(13);
+
+        //when
+        indexAdvisor.capture(() -> {
+            memberRepository.search(condition);
+            memberRepository.findAll(member.username.eq("member1"));
+            memberRepository.findAll(member.team.id.eq(teamAId).and(member.age.lt(3)));
+            memberRepository.findAll(member.age.goe(0));
+            return null;
+        });
+        List<IndexAdvisor.Proposal> proposals = indexAdvisor.advise();
+
+        //then -> 선택도 1 인 age >= 0 은 제안하지 않음, member.team.id 는 외래키 컬럼으로 비교
+        assertThat(proposals).extracting("ddl").containsExactlyInAnyOrder(
+                "create index ix_member_team_id_age on member (team_id, age)",
+                "create index ix_team_name on team (name)",
+                "create index ix_member_username on member (username)");
+        assertThat(proposals.get(0).getCalls()).isEqualTo(2);
+        assertThat(proposals.get(0).getSelectivity()).isLessThanOrEqualTo(0.2);
+    }
+
+    @Test
+    void rowCountIsCachedBetweenAdvice() {
+        //given
+        indexAdvisor.capture(() -> memberRepository.findAll(member.username.eq("member1")));
+        double selectivity = indexAdvisor.advise().get(0).getSelectivity();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 20; i < 40; i++) {
+                em.persist(new Member("member" + i, i));
+            }
+        });
+
+        //when -> 캐시된 행 수(20)를 그대로 사용
+        List<IndexAdvisor.Proposal> proposals = indexAdvisor.advise();
+
+        //then
+        assertThat(proposals.get(0).getSelectivity()).isEqualTo(selectivity);
+    }
+
+    @Test
+    void notRecordedOutsideCapture() {
+        //when
+        memberRepository.findAll(member.username.eq("member1"));
+
+        //then
+        assertThat(indexAdvisor.advise()).isEmpty();
+    }
+
+    @Test
+    void applySkipsExistingIndexes() {
+        //given
+        indexAdvisor.capture(() -> memberRepository.findAll(member.username.eq("member1")));
+        List<IndexAdvisor.Proposal> proposals = indexAdvisor.advise();
+
+        //when
+        applied.addAll(proposals);
+        int created = indexAdvisor.apply(proposals);
+
+        //then
+        assertThat(created).isEqualTo(1);
+        assertThat(indexAdvisor.advise()).isEmpty();
+    }
+}
@@ -0,0 +1,110 @@
+package study.querydsl.repo.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.MemberJpaRepository;
+import study.querydsl.repo.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "querydsl.query-budget.enabled=true",
+        "querydsl.query-budget.mode=fail",
+        "querydsl.query-budget.per-repository-call=1"})
+@Transactional
+class QueryBudgetTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+
+            Member member = new Member(team, "member" + i, i * 10);
+            em.persist(member);
+            memberIds.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void detectRepeatedStatements() {
+        //when -> 같은 SQL 을 파라미터만 바꿔서 3번 실행
+        QueryBudget.Scope scope = QueryBudget.open("findEach");
+        try {
+            for (Long id : memberIds) {
+                em.find(Member.class, id);
+            }
+        } finally {
+            scope.close();
+        }
+
+        //then
+        assertThat(scope.getStatements()).isEqualTo(3);
+        assertThat(scope.getRepeatedStatements(3)).hasSize(1);
+    }
+
+    @Test
+    void expectAtMost() {
+        //fetch join -> 한 번
+        List<Member> members = QueryBudget.expectAtMost(1, () -> em.createQuery(
+                        "select m from Member m join fetch m.team", Member.class)
+                .getResultList());
+        assertThat(members).hasSize(3);
+        em.clear();
+
+        //단건 조회 반복 -> N+1
+        assertThatThrownBy(() -> QueryBudget.expectAtMost(10, () -> {
+            memberIds.forEach(id -> em.find(Member.class, id));
+            return null;
+        })).isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("possible N+1");
+    }
+
+    @Test
+    void repositoryCallBudget() {
+        //per-repository-call=1, fail 모드 -> 쿼리 한 번은 통과
+        assertThat(memberJpaRepository.findAll_Querydsl()).hasSize(3);
+
+        //content + count 두 번 조회하는 리포지토리 호출 -> 예외
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(0, 2)))
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void failModeThrowsBeforeStatementRuns() {
+        //given -> 요청 구간 한도 2
+        QueryBudgetPolicy policy = new QueryBudgetPolicy(true, "fail", 2, 20, 10);
+        List<Member> found = new ArrayList<>();
+
+        //when //then -> 세 번째 SQL 을 실행하기 전에 예외 (요청이 끝나기 전, 응답을 쓰기 전)
+        QueryBudget.Scope scope = policy.openRequest("GET /v1/members");
+        try {
+            assertThatThrownBy(() -> memberIds.forEach(id -> found.add(em.find(Member.class, id))))
+                    .isInstanceOf(QueryBudgetExceededException.class)
+                    .hasMessageContaining("budget 2");
+        } finally {
+            scope.close();
+        }
+        assertThat(found).hasSize(2);
+    }
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repo.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.MemberJpaRepository;
+import study.querydsl.repo.MemberSearchQueryCache;
+import study.querydsl.repo.MemberTestRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class QueryMetricsTest {
+
+    @Autowired EntityManager em;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberTestRepository memberTestRepository;
+    @Autowired MemberSearchQueryCache memberSearchQueryCache;
+
+    @BeforeEach
+    void beforeEach() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member(teamA, "member1", 10));
+        em.persist(new Member(teamA, "member2", 20));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void recordPerCaller() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        memberJpaRepository.searchByBuilder(condition);
+        memberJpaRepository.searchByBuilder(condition);
+
+        //then
+        Timer timer = meterRegistry.find("querydsl.query")
+                .tag("caller", "MemberJpaRepository.searchByBuilder")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+
+        DistributionSummary rows = meterRegistry.find("querydsl.query.rows")
+                .tag("caller", "MemberJpaRepository.searchByBuilder")
+                .summary();
+        assertThat(rows.totalAmount()).isEqualTo(4);
+
+        DistributionSummary statements = meterRegistry.find("querydsl.query.statements")
+                .tag("caller", "MemberJpaRepository.searchByBuilder")
+                .summary();
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void callerIsResetAfterRepositoryCall() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        memberJpaRepository.searchByBuilder(condition);
+
+        //then -> 스택을 따라가지 않고 리포지토리 호출 동안만 설정
+        assertThat(RepositoryCall.current()).isEqualTo(RepositoryCall.UNKNOWN);
+    }
+
+    @Test
+    void recordPagingQueries() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        long before = executions("MemberTestRepository.applyPaginationByIds");
+
+        //when -> id 쿼리, where id in 쿼리, count 쿼리
+        memberTestRepository.applyPaginationByIds(condition, PageRequest.of(0, 1));
+
+        //then
+        assertThat(executions("MemberTestRepository.applyPaginationByIds") - before).isEqualTo(3);
+    }
+
+    @Test
+    void recordCachedJpql() {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        memberSearchQueryCache.search(condition);
+
+        //then
+        Timer timer = meterRegistry.find("querydsl.query")
+                .tag("caller", "MemberSearchQueryCache.search")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void countJdbcStatements() {
+        //given
+        long before = JdbcStatementCounter.current();
+
+        //when
+        em.createQuery("select m from Member m", Member.class).getResultList();
+
+        //then
+        assertThat(JdbcStatementCounter.current() - before).isEqualTo(1);
+    }
+
+    private long executions(String caller) {
+        return meterRegistry.find("querydsl.query").tag("caller", caller).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
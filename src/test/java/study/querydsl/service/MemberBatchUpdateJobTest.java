@@ -0,0 +1,102 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.BatchCheckpoint;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repo.BatchCheckpointRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/*
+작업이 백그라운드 스레드에서 chunk 마다 커밋하므로 @Transactional 대신 테스트가 끝나면 직접 삭제
+ */
+@SpringBootTest(properties = {"member.batch-job.chunk-size=2", "member.batch-job.rows-per-second=0"})
+class MemberBatchUpdateJobTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberBatchUpdateJob memberBatchUpdateJob;
+    @Autowired BatchCheckpointRepository batchCheckpointRepository;
+
+    List<Long> memberIds;
+
+    @BeforeEach
+    void beforeEach() {
+        memberIds = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                Member member = new Member(teamA, "member" + i, i * 10);
+                em.persist(member);
+                ids.add(member.getId());
+            }
+            return ids;
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+            em.createQuery("delete from BatchCheckpoint").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void run() throws Exception {
+        //when
+        BatchCheckpoint checkpoint = memberBatchUpdateJob
+                .start("ageIncrement", null, update -> update.set(member.age, member.age.add(1)))
+                .get(10, TimeUnit.SECONDS);
+
+        //then
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getProcessedRows()).isEqualTo(5);
+        assertThat(checkpoint.getLastId()).isEqualTo(memberIds.get(4));
+        assertThat(ages()).containsExactly(11, 21, 31, 41, 51);
+    }
+
+    @Test
+    void resume() throws Exception {
+        //given -> 앞의 두 건까지 처리하고 실패한 작업
+        transactionTemplate.executeWithoutResult(status -> {
+            BatchCheckpoint checkpoint = new BatchCheckpoint("ageIncrement");
+            checkpoint.advance(memberIds.get(1), 2);
+            checkpoint.fail();
+            batchCheckpointRepository.save(checkpoint);
+        });
+
+        //when
+        BatchCheckpoint checkpoint = memberBatchUpdateJob
+                .start("ageIncrement", null, update -> update.set(member.age, member.age.add(1)))
+                .get(10, TimeUnit.SECONDS);
+
+        //then
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(checkpoint.getProcessedRows()).isEqualTo(5);
+        assertThat(ages()).containsExactly(10, 20, 31, 41, 51);
+    }
+
+    private List<Integer> ages() {
+        return transactionTemplate.execute(status ->
+                em.createQuery("select m.age from Member m order by m.id", Integer.class).getResultList());
+    }
+}
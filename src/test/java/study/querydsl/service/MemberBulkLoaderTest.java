@@ -0,0 +1,113 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberLoadRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+적재는 항상 새 트랜잭션에서 커밋되므로 @Transactional 대신 테스트가 끝나면 직접 삭제
+ */
+@SpringBootTest
+class MemberBulkLoaderTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberBulkLoader memberBulkLoader;
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void persist() {
+        //given
+        Team team = memberBulkLoader.loadTeams(List.of("teamA")).get(0);
+        List<MemberLoadRow> rows = rows(team.getId(), 120);
+
+        //when
+        int count = memberBulkLoader.persist(rows);
+
+        //then
+        assertThat(count).isEqualTo(120);
+        assertThat(countMembers(team)).isEqualTo(120L);
+    }
+
+    @Test
+    void insertMultiRow() {
+        //given
+        Team team = memberBulkLoader.loadTeams(List.of("teamA")).get(0);
+        List<MemberLoadRow> rows = rows(team.getId(), 1200);
+        rows.add(new MemberLoadRow(null, "noTeam", 10));
+
+        //when
+        int count = memberBulkLoader.insertMultiRow(rows);
+
+        //then
+        assertThat(count).isEqualTo(1201);
+        assertThat(countMembers(team)).isEqualTo(1200L);
+
+        Member noTeam = transactionTemplate.execute(status -> em
+                .createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", "noTeam")
+                .getSingleResult());
+        assertThat(noTeam.getTeam()).isNull();
+    }
+
+    @Test
+    void callerPersistenceContextIsKept() {
+        //given
+        Team team = memberBulkLoader.loadTeams(List.of("teamA")).get(0);
+
+        //when -> 바깥 트랜잭션이 변경 중인 엔티티를 들고 있는 상태에서 적재
+        boolean managedAfterLoad = transactionTemplate.execute(status -> {
+            Team managed = em.find(Team.class, team.getId());
+            managed.setName("renamed");
+
+            memberBulkLoader.persist(rows(team.getId(), 30));
+            memberBulkLoader.insertMultiRow(rows(team.getId(), 30));
+
+            //적재 후 변경도 그대로 반영되어야 함
+            managed.setName(managed.getName() + "-after");
+            return em.contains(managed);
+        });
+
+        //then
+        assertThat(managedAfterLoad).isTrue();
+        String name = transactionTemplate.execute(status -> em.find(Team.class, team.getId()).getName());
+        assertThat(name).isEqualTo("renamed-after");
+        assertThat(countMembers(team)).isEqualTo(60L);
+    }
+
+    private List<MemberLoadRow> rows(Long teamId, int size) {
+        List<MemberLoadRow> rows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            rows.add(new MemberLoadRow(teamId, "member" + i, i % 100));
+        }
+        return rows;
+    }
+
+    private Long countMembers(Team team) {
+        return transactionTemplate.execute(status -> em
+                .createQuery("select count(m) from Member m where m.team.id = :teamId", Long.class)
+                .setParameter("teamId", team.getId())
+                .getSingleResult());
+    }
+}
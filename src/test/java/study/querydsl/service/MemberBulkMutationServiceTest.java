@@ -0,0 +1,120 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/*
+chunk 는 항상 새 트랜잭션에서 커밋되므로 @Transactional 대신 직접 저장 / 삭제
+ */
+@SpringBootTest(properties = "member.bulk-mutation.chunk-size=2")
+class MemberBulkMutationServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberBulkMutationService memberBulkMutationService;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+
+            for (int i = 1; i <= 5; i++) {
+                Member member = new Member(teamA, "member" + i, i * 10);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void update() {
+        //when
+        MemberBulkMutationService.BulkMutationResult result = memberBulkMutationService.update(
+                member.age.lt(45),
+                update -> update.set(member.username, "비회원"));
+
+        //then
+        assertThat(result.getAffectedRows()).isEqualTo(4);
+        assertThat(result.getChunks()).extracting(MemberBulkMutationService.ChunkResult::getAffectedRows)
+                .containsExactly(2L, 2L);
+        assertThat(find(memberIds.get(0)).getUsername()).isEqualTo("비회원");
+        assertThat(find(memberIds.get(4)).getUsername()).isEqualTo("member5");
+    }
+
+    @Test
+    void updateChangingPredicateColumn() {
+        //when -> 나이를 바꿔도 각 회원은 한 번만 변경됨
+        MemberBulkMutationService.BulkMutationResult result = memberBulkMutationService.update(
+                member.age.lt(45),
+                update -> update.set(member.age, member.age.add(1)));
+
+        //then
+        assertThat(result.getAffectedRows()).isEqualTo(4);
+        assertThat(find(memberIds.get(0)).getAge()).isEqualTo(11);
+    }
+
+    @Test
+    void delete() {
+        //when
+        MemberBulkMutationService.BulkMutationResult result = memberBulkMutationService.delete(member.age.gt(18));
+
+        //then
+        assertThat(result.getAffectedRows()).isEqualTo(4);
+        assertThat(result.getChunks()).hasSize(2);
+        assertThat(find(memberIds.get(1))).isNull();
+        assertThat(find(memberIds.get(0))).isNotNull();
+    }
+
+    @Test
+    void updateInsideOuterTransaction() {
+        //when -> 바깥 트랜잭션 안에서 호출하고 바깥 트랜잭션은 롤백
+        List<Boolean> managed = transactionTemplate.execute(status -> {
+            Member changed = em.find(Member.class, memberIds.get(0));
+            Member untouched = em.find(Member.class, memberIds.get(4)); //age 50
+
+            memberBulkMutationService.update(member.age.lt(45), update -> update.set(member.username, "비회원"));
+
+            //바깥 영속성 컨텍스트에서도 변경된 회원만 빠짐 -> 다시 조회하면 커밋된 DB 값
+            List<Boolean> result = List.of(em.contains(changed), em.contains(untouched),
+                    em.find(Member.class, memberIds.get(0)).getUsername().equals("비회원"));
+            status.setRollbackOnly();
+            return result;
+        });
+
+        //then -> chunk 는 바깥 트랜잭션에 참여하지 않고 각자 커밋됨
+        assertThat(managed).containsExactly(false, true, true);
+        assertThat(find(memberIds.get(0)).getUsername()).isEqualTo("비회원");
+        assertThat(find(memberIds.get(3)).getUsername()).isEqualTo("비회원");
+    }
+
+    private Member find(Long id) {
+        return transactionTemplate.execute(status -> em.find(Member.class, id));
+    }
+}
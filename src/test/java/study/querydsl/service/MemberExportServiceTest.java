@@ -0,0 +1,141 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+내보내기는 항상 새 트랜잭션에서 실행되어 커밋된 데이터만 보이므로 @Transactional 대신 직접 저장 / 삭제
+clear-interval 을 2 로 줄여서 영속성 컨텍스트를 비우는 경계를 지나도록 함
+ */
+@SpringBootTest(properties = "member.export.clear-interval=2")
+class MemberExportServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberExportService memberExportService;
+
+    @BeforeEach
+    void beforeEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+
+            em.persist(new Member(teamA, "member1", 10));
+            em.persist(new Member(teamA, "member,2", 20));
+            em.persist(new Member("member3", 30));
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void exportCsv() throws Exception {
+        //given
+        StringWriter writer = new StringWriter();
+
+        //when
+        long count = memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.CSV, writer);
+
+        //then
+        String[] lines = writer.toString().split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("memberId,username,age,teamId,teamName");
+        assertThat(lines[2]).contains("\"member,2\",20");
+        assertThat(lines[3]).endsWith("member3,30,,");
+    }
+
+    @Test
+    void exportNdjson() throws Exception {
+        //given
+        StringWriter writer = new StringWriter();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        long count = memberExportService.export(condition, MemberExportService.Format.NDJSON, writer);
+
+        //then
+        assertThat(count).isEqualTo(2);
+        assertThat(writer.toString().split("\n"))
+                .allMatch(line -> line.startsWith("{") && line.contains("\"teamName\":\"teamA\""));
+    }
+
+    @Test
+    void exportPastClearInterval() throws Exception {
+        //given -> clear-interval(2) 을 여러 번 지나도록 추가
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamB = new Team("teamB");
+            em.persist(teamB);
+            for (int i = 4; i <= 10; i++) {
+                em.persist(new Member(teamB, "member" + i, i * 10));
+            }
+        });
+        StringWriter writer = new StringWriter();
+
+        //when
+        long count = memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.CSV, writer);
+
+        //then -> 영속성 컨텍스트를 비운 뒤에도 빠지거나 겹치는 행 없이 id 순서대로, 팀도 그대로
+        String[] lines = writer.toString().split("\n");
+        assertThat(count).isEqualTo(10);
+        assertThat(lines).hasSize(11);
+        assertThat(Arrays.stream(lines).skip(1).map(line -> Long.parseLong(line.substring(0, line.indexOf(',')))))
+                .isSorted()
+                .doesNotHaveDuplicates();
+        assertThat(lines[10]).contains("member10,100,").endsWith(",teamB");
+    }
+
+    @Test
+    void callerPersistenceContextIsKept() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> em
+                .createQuery("select t.id from Team t where t.name = 'teamA'", Long.class)
+                .getSingleResult());
+
+        //when -> 바깥 트랜잭션이 변경 중인 엔티티를 들고 있는 상태에서 내보내기
+        boolean managedAfterExport = transactionTemplate.execute(status -> {
+            Team managed = em.find(Team.class, teamId);
+            managed.setName("renamed");
+
+            try {
+                memberExportService.export(new MemberSearchCondition(), MemberExportService.Format.CSV, new StringWriter());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            //내보내기 후 변경도 그대로 반영되어야 함
+            managed.setName(managed.getName() + "-after");
+            return em.contains(managed);
+        });
+
+        //then
+        assertThat(managedAfterExport).isTrue();
+        String name = transactionTemplate.execute(status -> em.find(Team.class, teamId).getName());
+        assertThat(name).isEqualTo("renamed-after");
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.SeedProperties;
+import study.querydsl.dto.MemberLoadRow;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+worker 스레드마다 트랜잭션을 따로 커밋하므로 @Transactional 대신 테스트가 끝나면 직접 삭제
+ */
+@SpringBootTest
+class MemberSeedGeneratorTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberSeedGenerator memberSeedGenerator;
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void generate() {
+        //given
+        SeedProperties properties = new SeedProperties();
+        properties.setTeams(3);
+        properties.setMembers(2_500);
+        properties.setChunkSize(1_000);
+        properties.setWorkers(2);
+        properties.setTeamSkew(1.5);
+
+        //when
+        MemberSeedGenerator.SeedResult result = memberSeedGenerator.generate(properties);
+
+        //then
+        assertThat(result.getTeams()).isEqualTo(3);
+        assertThat(result.getMembers()).isEqualTo(2_500);
+
+        List<Object[]> counts = em.createQuery(
+                "select t.name, count(m) from Member m join m.team t group by t.name order by count(m) desc", Object[].class)
+                .getResultList();
+        assertThat(counts).hasSize(3);
+        assertThat(counts.get(0)[0]).isEqualTo("teamA");
+        assertThat(counts.stream().mapToLong(row -> (Long) row[1]).sum()).isEqualTo(2_500L);
+    }
+
+    @Test
+    void chunkRowsAreReproducible() {
+        //given
+        SeedProperties properties = new SeedProperties();
+        properties.setMembers(1_500);
+        properties.setChunkSize(1_000);
+        properties.setAgeSkew(1.0);
+        List<Long> teamIds = List.of(1L, 2L);
+        ZipfSampler teamSampler = new ZipfSampler(2, 0.0);
+        ZipfSampler ageSampler = new ZipfSampler(100, 1.0);
+
+        //when
+        List<MemberLoadRow> first = memberSeedGenerator.chunkRows(properties, 1, teamIds, teamSampler, ageSampler);
+        List<MemberLoadRow> second = memberSeedGenerator.chunkRows(properties, 1, teamIds, teamSampler, ageSampler);
+
+        //then
+        assertThat(first).hasSize(500);
+        assertThat(first.get(0).getUsername()).isEqualTo("member1000");
+        assertThat(first).extracting(MemberLoadRow::getAge)
+                .containsExactlyElementsOf(second.stream().map(MemberLoadRow::getAge).collect(Collectors.toList()));
+    }
+
+    @Test
+    void chunkRowsAgeStartsAtMinAge() {
+        //given
+        SeedProperties properties = new SeedProperties();
+        properties.setMembers(1_000);
+        properties.setMinAge(20);
+        properties.setMaxAge(60);
+        properties.setAgeSkew(1.0);
+        List<Long> teamIds = List.of(1L);
+        ZipfSampler teamSampler = new ZipfSampler(1, 0.0);
+        ZipfSampler ageSampler = new ZipfSampler(41, 1.0);
+
+        //when
+        List<MemberLoadRow> rows = memberSeedGenerator.chunkRows(properties, 0, teamIds, teamSampler, ageSampler);
+
+        //then -> 가장 많이 뽑히는 순위 0 이 minAge
+        Map<Integer, Long> counts = rows.stream()
+                .collect(Collectors.groupingBy(MemberLoadRow::getAge, Collectors.counting()));
+        assertThat(counts.keySet()).allMatch(age -> age >= 20 && age <= 60);
+        assertThat(counts.get(20)).isEqualTo(counts.values().stream().mapToLong(Long::longValue).max().getAsLong());
+    }
+
+    @Test
+    void zipfSkew() {
+        //given
+        SplittableRandom random = new SplittableRandom(42L);
+        ZipfSampler skewed = new ZipfSampler(10, 2.0);
+
+        //when
+        Map<Integer, Long> counts = IntStream.range(0, 10_000)
+                .mapToObj(i -> skewed.sample(random))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        //then
+        assertThat(counts.keySet()).allMatch(rank -> rank >= 0 && rank < 10);
+        assertThat(counts.get(0)).isGreaterThan(counts.get(1)).isGreaterThan(5_000L);
+    }
+}